@@ -0,0 +1,59 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.InternshipApplication;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots the application without a web server against a private in-memory H2 database and seeds it with rows, so
+ * every benchmark measures the real service, repository and JDBC stack instead of mocks.
+ */
+final class BenchmarkContext {
+
+    private static final int SEED_BATCH = 1_000;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(int rows, String... profiles) {
+        return start(rows, Map.of(), profiles);
+    }
+
+    /** Same, with {@code properties} passed as command line arguments, e.g. to switch a feature on for one trial. */
+    static ConfigurableApplicationContext start(int rows, Map<String, Object> properties, String... profiles) {
+        SpringApplication application = new SpringApplication(InternshipApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setBannerMode(Banner.Mode.OFF);
+        application.setAdditionalProfiles(profiles);
+
+        List<String> args = new ArrayList<>(List.of(
+                // H2 would otherwise answer a repeated query from its last result while the table is unchanged,
+                // which a real database doesn't do and which turns every read-only count into a cache hit.
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+                "--logging.level.root=WARN"));
+        properties.forEach((name, value) -> args.add("--" + name + "=" + value));
+        ConfigurableApplicationContext context = application.run(args.toArray(String[]::new));
+        seed(context.getBean(JdbcTemplate.class), rows);
+        return context;
+    }
+
+    /** Inserts ids 1..rows with plain JDBC batches and moves the id sequence past them. */
+    static void seed(JdbcTemplate jdbc, int rows) {
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH);
+        for (long id = 1; id <= rows; id++) {
+            batch.add(new Object[]{id, "Item " + id, "Seeded by the benchmark", "NEW", "item" + id + "@bench.com", 0L});
+            if (batch.size() == SEED_BATCH || id == rows) {
+                jdbc.batchUpdate("INSERT INTO item (id, name, description, status, email, version) VALUES (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbc.execute("ALTER SEQUENCE item_seq RESTART WITH " + (rows + 1_000));
+    }
+}
@@ -0,0 +1,50 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.validation.EmailValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * The e-mail check of Item: the regex of the former {@code @Pattern} against {@link EmailValidator}. No application
+ * context, only the two checks on a typical address, a rejected one and a hostile one of about 1 KB. With the GC
+ * profiler it also shows what each allocates per call:
+ * <p>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="EmailValidationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmailValidationBenchmark {
+
+    private static final Pattern REGEX = Pattern.compile("[a-zA-Z][.0-9a-zA-Z]+\\@([.a-zA-Z]+)+(\\.[a-z]+)+");
+
+    @Param({"typical", "invalid", "hostile"})
+    private String input;
+
+    private String email;
+
+    @Setup
+    public void setUp() {
+        email = switch (input) {
+            case "typical" -> "codorean.do.luca@student.utcluj.ro";
+            case "invalid" -> "codorean.luca@gmail.COM";
+            case "hostile" -> "aa@" + "a.".repeat(500) + "A";
+            default -> throw new IllegalArgumentException(input);
+        };
+    }
+
+    @Benchmark
+    public boolean regex() {
+        return REGEX.matcher(email).matches();
+    }
+
+    @Benchmark
+    public boolean scanner() {
+        return EmailValidator.isValid(email);
+    }
+}
@@ -0,0 +1,68 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.service.ItemService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Full processing runs with platform threads versus virtual threads. The primary score is runs per second; the
+ * "items" secondary score is the processed items per second, which is the number to compare across table sizes.
+ * <p>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ExecutionModeBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class ExecutionModeBenchmark {
+
+    @Param({"10000", "100000"})
+    private int items;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    // "fixed" keeps items.processing.parallelism chunks in flight, "adaptive" lets the limiter find the level.
+    @Param({"adaptive", "fixed"})
+    private String limiter;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("items.processing.limiter.enabled", String.valueOf("adaptive".equals(limiter)));
+        context = "virtual".equals(mode)
+                ? BenchmarkContext.start(items, "virtual-threads")
+                : BenchmarkContext.start(items);
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Processed {
+        public long items;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            items = 0;
+        }
+    }
+
+    @Benchmark
+    public void processAll(Processed processed) {
+        LongAdder count = new LongAdder();
+        itemService.processItemsAsync(chunk -> count.add(chunk.size())).join();
+        processed.items += count.sum();
+    }
+}
@@ -0,0 +1,94 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemFilter;
+import com.siemens.internship.repository.StatusCount;
+import com.siemens.internship.service.ItemPage;
+import com.siemens.internship.service.ItemService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtered listing and status counts against the secondary indexes. After seeding, every tenth item is NEW, every
+ * hundredth REJECTED and the rest PROCESSED, so there are a common, a rare and a very rare status. With
+ * {@code -p indexed=false} the status and email indexes are dropped, which gives the full scans they replace:
+ * <p>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ItemLookupBenchmark -p rows=1000000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class ItemLookupBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        itemService = context.getBean(ItemService.class);
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("UPDATE item SET status = CASE WHEN MOD(id, 100) = 0 THEN 'REJECTED' WHEN MOD(id, 10) = 0 THEN 'NEW' ELSE 'PROCESSED' END");
+        if (!indexed) {
+            jdbc.execute("DROP INDEX idx_item_status");
+            jdbc.execute("DROP INDEX idx_item_email");
+        }
+        jdbc.execute("ANALYZE");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    /** GET /api/items?status=PROCESSED from a random cursor: nine rows in ten match. */
+    @Benchmark
+    public ItemPage<Item> findPageByCommonStatus() {
+        return itemService.findPage(new ItemFilter("PROCESSED", null), randomId(), PAGE_SIZE);
+    }
+
+    /** GET /api/items?status=REJECTED from a random cursor: a page spans 10,000 ids, so an id range scan reads them all. */
+    @Benchmark
+    public ItemPage<Item> findPageByRareStatus() {
+        return itemService.findPage(new ItemFilter("REJECTED", null), randomId(), PAGE_SIZE);
+    }
+
+    /** GET /api/items?email=... for a random item; one match in the whole table. */
+    @Benchmark
+    public ItemPage<Item> findPageByEmail() {
+        return itemService.findPage(new ItemFilter(null, "item" + randomId() + "@bench.com"), null, PAGE_SIZE);
+    }
+
+    /** GET /api/items/status/counts?status=REJECTED */
+    @Benchmark
+    public List<StatusCount> countByRareStatus() {
+        return itemService.countByStatus("REJECTED");
+    }
+
+    /** GET /api/items/status/counts; walks the whole status index, so it grows with the table. */
+    @Benchmark
+    public List<StatusCount> countGroupedByStatus() {
+        return itemService.countByStatus(null);
+    }
+}
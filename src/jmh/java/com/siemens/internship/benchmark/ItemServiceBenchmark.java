@@ -0,0 +1,123 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.service.ItemPage;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ProcessingMode;
+import com.siemens.internship.service.ProcessingSummary;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline for the ItemService hot paths against a seeded H2 database. Every method is measured both as throughput
+ * and as sampled latency, so the report carries ops/s and the p50/p90/p99/p99.9 percentiles side by side. Run it with
+ * the GC profiler to get the allocation rate per operation:
+ * <p>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="ItemServiceBenchmark -prof gc"
+ * <p>
+ * Restrict the table sizes with e.g. {@code -p rows=1000}; the 1M row trials of findAll and processItemsAsync take a
+ * few seconds per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class ItemServiceBenchmark {
+
+    private static final int HOT_SET = 100;
+    private static final int PAGE_SIZE = 100;
+    private static final int BULK_SIZE = 1_000;
+    private static final List<String> PROJECTION = List.of("id", "status");
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    @Benchmark
+    public List<Item> findAll() {
+        return itemService.findAll();
+    }
+
+    /** One page of GET /api/items from a random cursor; should not depend on the table size, unlike findAll. */
+    @Benchmark
+    public ItemPage<Item> findPage() {
+        return itemService.findPage(randomId(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public ItemPage<Map<String, Object>> findPageProjected() {
+        return itemService.findPage(randomId(), PAGE_SIZE, PROJECTION);
+    }
+
+    @Benchmark
+    public Optional<Item> findById() throws Exception {
+        return itemService.findById(randomId());
+    }
+
+    /** Reads confined to a hot set of 100 ids, i.e. the traffic the item cache is meant for. */
+    @Benchmark
+    public Optional<Item> findByIdHot() throws Exception {
+        return itemService.findById(ThreadLocalRandom.current().nextLong(1, Math.min(rows, HOT_SET) + 1));
+    }
+
+    @Benchmark
+    public Optional<Item> updateItem() throws Exception {
+        Item patch = new Item(null, null, null, ThreadLocalRandom.current().nextBoolean() ? "NEW" : "PENDING", null);
+        return itemService.updateItem(randomId(), patch);
+    }
+
+    @Benchmark
+    public Item save() {
+        return itemService.save(new Item(null, "Benchmark item", "Inserted by save()", "NEW", "bench@bench.com"));
+    }
+
+    /** POST /api/items/bulk with BULK_SIZE items; multiply ops/s by BULK_SIZE for rows per second. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public List<Item> saveAll() {
+        List<Item> items = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            items.add(new Item(null, "Bulk item " + i, "Inserted by saveAll()", "NEW", "bulk@bench.com"));
+        }
+        return itemService.saveAll(items);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public List<Item> processItemsAsync() {
+        return itemService.processItemsAsync().join();
+    }
+
+    /** Same run, keeping only the ids; compare gc.alloc.rate.norm and the heap after GC with processItemsAsync. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public ProcessingSummary summarizeItemsAsync() {
+        return itemService.summarizeItemsAsync(ProcessingMode.FULL).join();
+    }
+}
@@ -0,0 +1,69 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.service.ItemService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * updateItem written through against the same calls with items.write-behind.enabled, from four threads. The
+ * write-behind trials include the flushes: they run on their own thread while the updates are measured, and the
+ * buffer holds at most a twentieth of the table, so {@code update}, spread over every row, soon runs at the pace
+ * the flushes sustain rather than at the pace memory fills. {@code updateHot} keeps to 100 ids, where most updates
+ * merge into a patch that is already buffered:
+ * <p>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="WriteBehindBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(4)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class WriteBehindBenchmark {
+
+    private static final int HOT_SET = 100;
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"false", "true"})
+    private boolean writeBehind;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(rows, Map.of(
+                "items.write-behind.enabled", writeBehind,
+                "items.write-behind.max-pending", rows / 20));
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Item> update() throws Exception {
+        return itemService.updateItem(ThreadLocalRandom.current().nextLong(1, rows + 1), patch());
+    }
+
+    @Benchmark
+    public Optional<Item> updateHot() throws Exception {
+        return itemService.updateItem(ThreadLocalRandom.current().nextLong(1, HOT_SET + 1), patch());
+    }
+
+    private static Item patch() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new Item(null, "Item " + random.nextInt(1000), null, random.nextBoolean() ? "NEW" : "PENDING", null);
+    }
+}
@@ -0,0 +1,104 @@
+package com.siemens.internship.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load: request n is due at start + n / rps and is sent then, with the JDK HttpClient, whether or not the
+ * earlier ones have been answered, so a slow server gets the same arrival rate as a fast one. Only load.max-in-flight
+ * requests may be unanswered at a time; beyond that sending waits, and since latency is measured from the due time,
+ * the wait counts against the server.
+ */
+@Slf4j
+final class LoadGenerator {
+
+    private final HttpClient client;
+    private final URI base;
+    private final LoadSettings settings;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    LoadGenerator(HttpClient client, URI base, LoadSettings settings) {
+        this.client = client;
+        this.base = base;
+        this.settings = settings;
+    }
+
+    /**
+     * Sends requests for {@code duration} and waits for their answers. Every load.report-interval the latencies of
+     * the interval are logged and, if {@code intervalLog} isn't null, written to it, tagged with the operation.
+     */
+    LoadResult run(Duration duration, HistogramLogWriter intervalLog) throws InterruptedException {
+        LoadResult result = new LoadResult(settings.mix().keySet());
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        AtomicLong lastAnswer = new AtomicLong();
+        double periodNanos = 1e9 / settings.rps();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long interval = settings.reportInterval().toNanos();
+        reporter.scheduleAtFixedRate(() -> report(result, start, intervalLog), interval, interval, TimeUnit.NANOSECONDS);
+        try {
+            for (long n = 0; ; n++) {
+                long due = start + (long) (n * periodNanos);
+                if (due - end >= 0) break;
+                long wait = due - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+
+                Operation operation = settings.pick(random);
+                inFlight.acquire();
+                client.sendAsync(operation.request(base, settings.rows(), random), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, failure) -> {
+                            long now = System.nanoTime();
+                            result.of(operation).record(now - due, failure == null ? response.statusCode() : -1);
+                            lastAnswer.accumulateAndGet(now, Math::max);
+                            inFlight.release();
+                        });
+            }
+            // Every request has an answer or a timeout by then.
+            if (!inFlight.tryAcquire(settings.maxInFlight(), Operation.TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Requests still unanswered after their timeout");
+            }
+        } finally {
+            reporter.shutdownNow();
+            reporter.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        report(result, start, intervalLog);
+        result.finish(Math.max(lastAnswer.get(), end) - start);
+        return result;
+    }
+
+    // One line per interval: requests answered and p99 of each operation. Runs on the reporter thread, and once more
+    // at the end for what the last interval left over.
+    private static synchronized void report(LoadResult result, long start, HistogramLogWriter intervalLog) {
+        StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "[%5ds]",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)));
+        long answered = 0;
+        for (Map.Entry<Operation, LoadResult.Stats> entry : result.stats().entrySet()) {
+            Histogram interval = entry.getValue().interval();
+            answered += interval.getTotalCount();
+            line.append(String.format(Locale.ROOT, " %s %d p99 %.1f ms |", entry.getKey().key(),
+                    interval.getTotalCount(), interval.getValueAtPercentile(99) / 1000.0));
+            if (intervalLog != null && interval.getTotalCount() > 0) {
+                interval.setTag(entry.getKey().key());
+                intervalLog.outputIntervalHistogram(interval);
+            }
+        }
+        if (answered > 0) log.info("{}", line);
+    }
+}
@@ -0,0 +1,164 @@
+package com.siemens.internship.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one measured run, per operation. Latencies are recorded in microseconds from the time a
+ * request was due to be sent, not from when it actually went out, so a server that falls behind shows up in the
+ * percentiles instead of slowing the load down (coordinated omission).
+ * <p>
+ * Answers are counted as ok (2xx and 304), shed (429 and 503, admission control turning requests away as
+ * configured) or failed (anything else, timeouts and connection errors included).
+ */
+final class LoadResult {
+
+    static final class Stats {
+        private final Recorder recorder = new Recorder(3);
+        private final Histogram total = new Histogram(3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder shed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        void record(long latencyNanos, int status) {
+            recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+            if (status >= 200 && status < 300 || status == 304) ok.increment();
+            else if (status == 429 || status == 503) shed.increment();
+            else failed.increment();
+        }
+
+        /** Latencies recorded since the last call, which are added to the run's total as well. */
+        synchronized Histogram interval() {
+            Histogram interval = recorder.getIntervalHistogram();
+            total.add(interval);
+            return interval;
+        }
+
+        long answered() {
+            return ok.sum() + shed.sum() + failed.sum();
+        }
+    }
+
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private volatile double seconds;
+
+    LoadResult(Iterable<Operation> operations) {
+        operations.forEach(operation -> stats.put(operation, new Stats()));
+    }
+
+    Stats of(Operation operation) {
+        return stats.get(operation);
+    }
+
+    Map<Operation, Stats> stats() {
+        return stats;
+    }
+
+    /**
+     * Sets the time from the first request being due to the last answer, which the throughput is based on. The last
+     * interval must have been collected.
+     */
+    void finish(long elapsedNanos) {
+        seconds = elapsedNanos / 1e9;
+    }
+
+    /** Successful answers per second. */
+    double throughput() {
+        return stats.values().stream().mapToLong(s -> s.ok.sum()).sum() / seconds;
+    }
+
+    double errorRate() {
+        long answered = stats.values().stream().mapToLong(Stats::answered).sum();
+        return answered == 0 ? 0 : (double) stats.values().stream().mapToLong(s -> s.failed.sum()).sum() / answered;
+    }
+
+    /** p99 of an operation in milliseconds. */
+    double p99(Operation operation) {
+        return stats.get(operation).total.getValueAtPercentile(99) / 1000.0;
+    }
+
+    String summary() {
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT,
+                "%.1f req/s ok over %.0f s, error rate %.4f%n", throughput(), seconds, errorRate()));
+        summary.append(String.format(Locale.ROOT, "%-8s %8s %6s %6s %9s %9s %9s %9s%n",
+                "", "ok", "shed", "failed", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        stats.forEach((operation, s) -> summary.append(String.format(Locale.ROOT,
+                "%-8s %8d %6d %6d %9.2f %9.2f %9.2f %9.2f%n", operation.key(), s.ok.sum(), s.shed.sum(), s.failed.sum(),
+                s.total.getValueAtPercentile(50) / 1000.0, s.total.getValueAtPercentile(99) / 1000.0,
+                s.total.getValueAtPercentile(99.9) / 1000.0, s.total.getMaxValue() / 1000.0)));
+        return summary.toString();
+    }
+
+    /**
+     * What got worse than {@code baseline} allows, one line each; empty if nothing did. Throughput may fall by
+     * tolerance.throughput, every p99 that has a baseline.p99.* key rise by tolerance.p99 (fractions), and at most
+     * max-error-rate of the answers may have failed.
+     */
+    List<String> regressionsAgainst(Properties baseline) {
+        List<String> regressions = new ArrayList<>();
+        double throughputFloor = number(baseline, "baseline.throughput") * (1 - number(baseline, "tolerance.throughput"));
+        if (throughput() < throughputFloor) {
+            regressions.add(String.format(Locale.ROOT, "throughput %.1f req/s is below %.1f req/s", throughput(), throughputFloor));
+        }
+        for (Operation operation : stats.keySet()) {
+            String key = "baseline.p99." + operation.key();
+            if (baseline.getProperty(key) == null) continue;
+            double ceiling = number(baseline, key) * (1 + number(baseline, "tolerance.p99"));
+            if (p99(operation) > ceiling) {
+                regressions.add(String.format(Locale.ROOT, "p99 of %s %.2f ms is above %.2f ms", operation.key(), p99(operation), ceiling));
+            }
+        }
+        double maxErrorRate = number(baseline, "max-error-rate");
+        if (errorRate() > maxErrorRate) {
+            regressions.add(String.format(Locale.ROOT, "error rate %.4f is above %.4f", errorRate(), maxErrorRate));
+        }
+        return regressions;
+    }
+
+    /**
+     * Writes the summary, a percentile distribution per operation (.hgrm, plottable with HdrHistogram's plotter)
+     * and {@code load-baseline.properties}: the workload and tolerances of {@code baseline} with this run's numbers,
+     * to copy over the stored one once a change of the numbers is intended.
+     */
+    void write(Path directory, LoadSettings settings, Properties baseline) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("summary.txt"), summary());
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            try (OutputStream out = Files.newOutputStream(directory.resolve(entry.getKey().key() + ".hgrm"))) {
+                entry.getValue().total.outputPercentileDistribution(new PrintStream(out), 1000.0);
+            }
+        }
+
+        Properties measured = new Properties();
+        measured.putAll(baseline);
+        measured.setProperty("load.rows", String.valueOf(settings.rows()));
+        measured.setProperty("load.rps", String.valueOf(settings.rps()));
+        measured.setProperty("load.mix", String.join(",", settings.mix().entrySet().stream()
+                .map(weight -> weight.getKey().key() + ":" + weight.getValue()).toList()));
+        settings.application().forEach((name, value) -> measured.setProperty("load.app." + name, value));
+        measured.setProperty("baseline.throughput", String.format(Locale.ROOT, "%.1f", throughput()));
+        stats.keySet().forEach(operation -> measured.setProperty("baseline.p99." + operation.key(),
+                String.format(Locale.ROOT, "%.2f", p99(operation))));
+        try (OutputStream out = Files.newOutputStream(directory.resolve("load-baseline.properties"))) {
+            measured.store(out, "Measured by LoadTestIT");
+        }
+    }
+
+    private static double number(Properties properties, String key) {
+        return Double.parseDouble(properties.getProperty(key));
+    }
+}
@@ -0,0 +1,79 @@
+package com.siemens.internship.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * What a load run does, read from the load.* keys of the baseline file, each overridable with a system property of
+ * the same name (-Dload.rps=400 on the Maven command line):
+ * <ul>
+ *     <li>load.rows: items seeded before the run</li>
+ *     <li>load.rps: requests started per second, whether or not earlier ones have been answered</li>
+ *     <li>load.warmup, load.duration: unmeasured and measured part of the run, e.g. 20s or 2h</li>
+ *     <li>load.report-interval: how often the latencies of the last interval are logged and written to intervals.hlog</li>
+ *     <li>load.max-in-flight: requests waiting for an answer at most; further ones are delayed, and the delay
+ *     counts into their latency</li>
+ *     <li>load.mix: relative weights of the operations, e.g. read:70,write:30</li>
+ *     <li>load.app.*: passed to the application with the prefix removed, e.g. -Dload.app.items.write-behind.enabled=true</li>
+ * </ul>
+ */
+record LoadSettings(int rows, double rps, Duration warmup, Duration duration, Duration reportInterval,
+                    int maxInFlight, Map<Operation, Integer> mix, Map<String, String> application) {
+
+    private static final String APPLICATION_PREFIX = "load.app.";
+
+    static LoadSettings of(Properties file) {
+        return of(file, System.getProperties());
+    }
+
+    static LoadSettings of(Properties file, Properties overrides) {
+        Properties merged = new Properties();
+        merged.putAll(file);
+        merged.putAll(overrides);
+
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String weight : merged.getProperty("load.mix").split(",")) {
+            String[] pair = weight.split(":");
+            mix.put(Operation.ofKey(pair[0]), Integer.parseInt(pair[1].trim()));
+        }
+        Map<String, String> application = new TreeMap<>();
+        merged.stringPropertyNames().stream()
+                .filter(name -> name.startsWith(APPLICATION_PREFIX))
+                .forEach(name -> application.put(name.substring(APPLICATION_PREFIX.length()), merged.getProperty(name)));
+
+        return new LoadSettings(
+                Integer.parseInt(merged.getProperty("load.rows")),
+                Double.parseDouble(merged.getProperty("load.rps")),
+                DurationStyle.detectAndParse(merged.getProperty("load.warmup")),
+                DurationStyle.detectAndParse(merged.getProperty("load.duration")),
+                DurationStyle.detectAndParse(merged.getProperty("load.report-interval")),
+                Integer.parseInt(merged.getProperty("load.max-in-flight")),
+                mix,
+                application);
+    }
+
+    /**
+     * Whether results of this run can be held against a baseline measured with {@code other}: same table, rate, mix
+     * and application settings. The length of the run may differ, so a soak is checked like a short run.
+     */
+    boolean sameWorkloadAs(LoadSettings other) {
+        return rows == other.rows && rps == other.rps && mix.equals(other.mix) && application.equals(other.application);
+    }
+
+    /** An operation drawn according to the mix. */
+    Operation pick(RandomGenerator random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int draw = random.nextInt(total);
+        for (Map.Entry<Operation, Integer> weight : mix.entrySet()) {
+            draw -= weight.getValue();
+            if (draw < 0) return weight.getKey();
+        }
+        throw new IllegalStateException("Empty load.mix");
+    }
+}
@@ -0,0 +1,117 @@
+package com.siemens.internship.load;
+
+import com.siemens.internship.InternshipApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.HistogramLogWriter;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the application on a random port against a private in-memory H2 seeded with load.rows items, and drives the
+ * mixed workload of load.mix over HTTP (see LoadSettings). Run with the load-test Maven profile.
+ * <p>
+ * The run fails when its throughput or a p99 regresses past load-baseline.properties by more than the tolerances
+ * stored there, or too many requests failed. A run whose workload differs from the baseline's is only reported.
+ * Everything measured goes to target/load: the summary, a percentile distribution per operation, the interval
+ * histograms of the whole run (intervals.hlog, for drift in a soak) and the baseline file this run would produce.
+ */
+@Slf4j
+class LoadTestIT {
+
+    private static final Path OUTPUT = Path.of("target", "load");
+    private static final int SEED_BATCH = 1_000;
+
+    private static Properties baseline;
+    private static LoadSettings settings;
+    private static ConfigurableApplicationContext context;
+    private static URI base;
+
+    @BeforeAll
+    static void start() throws IOException {
+        baseline = new Properties();
+        try (InputStream in = LoadTestIT.class.getResourceAsStream("/load-baseline.properties")) {
+            baseline.load(in);
+        }
+        settings = LoadSettings.of(baseline);
+
+        SpringApplication application = new SpringApplication(InternshipApplication.class);
+        application.setBannerMode(Banner.Mode.OFF);
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                // Same reasoning as the JMH benchmarks: no answers from H2's result reuse for an unchanged table.
+                "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+                "--logging.level.root=WARN",
+                // The application shares the logging system; the harness itself still reports.
+                "--logging.level.com.siemens.internship.load=INFO"));
+        settings.application().forEach((name, value) -> args.add("--" + name + "=" + value));
+        context = application.run(args.toArray(String[]::new));
+        seed(context.getBean(JdbcTemplate.class), settings.rows());
+        base = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+    }
+
+    @AfterAll
+    static void stop() {
+        if (context != null) context.close();
+    }
+
+    @Test
+    void mixedWorkloadStaysWithinBaseline() throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        LoadGenerator generator = new LoadGenerator(client, base, settings);
+
+        log.info("Warming up for {}", settings.warmup());
+        generator.run(settings.warmup(), null);
+
+        log.info("Measuring {}", settings);
+        OUTPUT.toFile().mkdirs();
+        LoadResult result;
+        File intervals = OUTPUT.resolve("intervals.hlog").toFile();
+        HistogramLogWriter intervalLog = new HistogramLogWriter(intervals);
+        try {
+            intervalLog.outputLogFormatVersion();
+            intervalLog.outputLegend();
+            result = generator.run(settings.duration(), intervalLog);
+        } finally {
+            intervalLog.close();
+        }
+        result.write(OUTPUT, settings, baseline);
+        log.info("Result, also in {}:\n{}", OUTPUT.resolve("summary.txt"), result.summary());
+
+        if (!settings.sameWorkloadAs(LoadSettings.of(baseline, new Properties()))) {
+            log.warn("Workload differs from load-baseline.properties, not compared");
+            return;
+        }
+        List<String> regressions = result.regressionsAgainst(baseline);
+        assertTrue(regressions.isEmpty(), "Regressed past load-baseline.properties:\n" + String.join("\n", regressions));
+    }
+
+    /** Inserts ids 1..rows with plain JDBC batches and moves the id sequence past them. */
+    private static void seed(JdbcTemplate jdbc, int rows) {
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH);
+        for (long id = 1; id <= rows; id++) {
+            batch.add(new Object[]{id, "Item " + id, "Seeded by the load test", "NEW", "item" + id + "@load.com", 0L});
+            if (batch.size() == SEED_BATCH || id == rows) {
+                jdbc.batchUpdate("INSERT INTO item (id, name, description, status, email, version) VALUES (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbc.execute("ALTER SEQUENCE item_seq RESTART WITH " + (rows + 1_000));
+    }
+}
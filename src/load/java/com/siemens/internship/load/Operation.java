@@ -0,0 +1,87 @@
+package com.siemens.internship.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * Requests of the mixed workload, each weighted by load.mix. Ids are drawn uniformly from the seeded rows, so reads
+ * mostly miss the items cache once the table is larger than its maximum size, as they would in production.
+ */
+enum Operation {
+
+    /** GET /api/items/{id} */
+    READ {
+        @Override
+        HttpRequest.Builder builder(URI base, int rows, RandomGenerator random) {
+            return HttpRequest.newBuilder(base.resolve("/api/items/" + anyId(rows, random))).GET();
+        }
+    },
+
+    /** One keyset page of GET /api/items, starting at a random id. */
+    LIST {
+        @Override
+        HttpRequest.Builder builder(URI base, int rows, RandomGenerator random) {
+            return HttpRequest.newBuilder(base.resolve("/api/items?limit=50&after=" + anyId(rows, random))).GET();
+        }
+    },
+
+    /** PUT /api/items/{id} without a version, changing name and status only. */
+    WRITE {
+        @Override
+        HttpRequest.Builder builder(URI base, int rows, RandomGenerator random) {
+            String body = "{\"name\":\"Load " + random.nextInt(1_000_000) + "\",\"status\":\"UPDATED\"}";
+            return json(HttpRequest.newBuilder(base.resolve("/api/items/" + anyId(rows, random))))
+                    .PUT(HttpRequest.BodyPublishers.ofString(body));
+        }
+    },
+
+    /** POST /api/items with a complete item. */
+    CREATE {
+        @Override
+        HttpRequest.Builder builder(URI base, int rows, RandomGenerator random) {
+            int n = random.nextInt(1_000_000);
+            String body = "{\"name\":\"Created " + n + "\",\"description\":\"Created by the load test\","
+                    + "\"status\":\"NEW\",\"email\":\"load" + n + "@load.com\"}";
+            return json(HttpRequest.newBuilder(base.resolve("/api/items")))
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+    },
+
+    /** An incremental processing run, GET /api/items/process/summary?mode=INCREMENTAL. */
+    PROCESS {
+        @Override
+        HttpRequest.Builder builder(URI base, int rows, RandomGenerator random) {
+            return HttpRequest.newBuilder(base.resolve("/api/items/process/summary?mode=INCREMENTAL")).GET();
+        }
+    };
+
+    /** Requests that got no answer within this are counted as failed. */
+    static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    abstract HttpRequest.Builder builder(URI base, int rows, RandomGenerator random);
+
+    /** A request of this kind against the application at {@code base}, seeded with ids 1..rows. */
+    HttpRequest request(URI base, int rows, RandomGenerator random) {
+        return builder(base, rows, random).timeout(TIMEOUT).build();
+    }
+
+    /** Name used in load.mix and in the baseline keys, e.g. {@code read}. */
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static Operation ofKey(String key) {
+        return valueOf(key.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static long anyId(int rows, RandomGenerator random) {
+        return 1 + random.nextInt(rows);
+    }
+
+    private static HttpRequest.Builder json(HttpRequest.Builder builder) {
+        return builder.header("Content-Type", "application/json");
+    }
+}
@@ -0,0 +1,45 @@
+package com.siemens.internship.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admission control in front of the /api/items endpoints, bound from {@code items.admission.*}. Every endpoint
+ * annotated with {@code @Admission("name")} draws from the budget of that name; endpoints without the annotation,
+ * and budgets that aren't configured, are not limited.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.admission")
+public class AdmissionProperties {
+
+    /** Off: every request is admitted. */
+    private boolean enabled = true;
+
+    /** Budgets keyed by the name used in {@code @Admission}: list, process and bulk. */
+    private Map<String, Budget> budgets = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Budget {
+        /**
+         * Bulkhead: requests of this budget being handled at the same time; 0 is unbounded. Over it a request is
+         * rejected right away with 503, so it never holds a servlet thread or a database connection while it waits.
+         */
+        private int maxConcurrent = 0;
+
+        /** Token bucket refill rate in requests per second; 0 disables rate limiting. Over it: 429. */
+        private double rate = 0;
+
+        /** Requests admitted at once by a full bucket, above the steady {@code rate}. */
+        private int burst = 1;
+
+        /** Retry-After sent with a bulkhead rejection, when there is no better estimate. */
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
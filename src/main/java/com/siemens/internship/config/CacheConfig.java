@@ -0,0 +1,59 @@
+package com.siemens.internship.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns on the Spring cache abstraction. The cache itself is Caffeine (W-TinyLFU eviction), configured through
+ * spring.cache.* in application.properties; recordStats has to stay in the spec for /api/items/cache/stats to work.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Wraps the auto-configured cache manager so that puts and evictions made inside a transaction are applied only
+     * after it commits. Otherwise a concurrent reader could re-cache the old row between the eviction and the commit,
+     * and a rolled back update would stay visible in the cache. Underneath, Caffeine caches keep the newest version
+     * of an item (see NewestVersionCache).
+     */
+    @Bean
+    static BeanPostProcessor transactionAwareCacheManager() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager cacheManager && !(bean instanceof TransactionAwareCacheManagerProxy)) {
+                    return new TransactionAwareCacheManagerProxy(newestVersionWins(cacheManager));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static CacheManager newestVersionWins(CacheManager cacheManager) {
+        Map<String, Cache> adapted = new ConcurrentHashMap<>();
+        return new CacheManager() {
+            @Override
+            public Cache getCache(String name) {
+                Cache cache = cacheManager.getCache(name);
+                if (!(cache instanceof CaffeineCache caffeine)) return cache;
+                return adapted.computeIfAbsent(name, ignored -> new NewestVersionCache(caffeine));
+            }
+
+            @Override
+            public Collection<String> getCacheNames() {
+                return cacheManager.getCacheNames();
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.siemens.internship.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Change event stream of items (outbox, dispatcher and the /api/items/events endpoints), bound from
+ * {@code items.events.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.events")
+public class ItemEventProperties {
+
+    /**
+     * How often the dispatcher numbers newly committed events and wakes up the subscribers. This is the delay a
+     * subscriber sees at worst, on top of the commit.
+     */
+    private Duration pollInterval = Duration.ofMillis(200);
+
+    /**
+     * Whether processing runs append a PROCESSED event per written item. A full run then adds as many events as there
+     * are items, in the transactions of its chunk writes; turn it off when consumers only follow changes made
+     * through the API.
+     */
+    private boolean includeProcessed = true;
+
+    /** Events numbered per dispatcher round, and events returned per long-poll response or SSE read. */
+    private int batchSize = 500;
+
+    /** Longest a long-poll request waits for an event before answering 204. */
+    private Duration maxWait = Duration.ofSeconds(30);
+
+    /** SSE comment sent when a stream has been idle this long, so proxies keep it open and dead clients are noticed. */
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+    /**
+     * How long dispatched events are kept. A consumer that falls further behind gets 410 Gone and has to re-read
+     * the items before it tails the stream again.
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    private Duration purgeInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,31 @@
+package com.siemens.internship.config;
+
+import com.siemens.internship.model.Item;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * Caffeine cache whose puts never replace an item with an older version of the same item. A reader that loaded the
+ * row before a concurrent update committed may put it after the update put the saved item; the put is then a
+ * no-op instead of leaving the old version cached until it expires. Values that aren't versioned items are put as
+ * usual.
+ */
+class NewestVersionCache extends CaffeineCache {
+
+    NewestVersionCache(CaffeineCache cache) {
+        super(cache.getName(), cache.getNativeCache(), cache.isAllowNullValues());
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        getNativeCache().asMap().merge(key, toStoreValue(value), NewestVersionCache::newer);
+    }
+
+    private static Object newer(Object cached, Object offered) {
+        if (cached instanceof Item current && offered instanceof Item item
+                && current.getVersion() != null && item.getVersion() != null
+                && current.getVersion() > item.getVersion()) {
+            return cached;
+        }
+        return offered;
+    }
+}
@@ -0,0 +1,13 @@
+package com.siemens.internship.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Scheduling drives ProcessingJobRegistry.resumeRuns(), which picks up ledger runs left behind by other instances, and
+// the rounds of ItemEventDispatcher.
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({ProcessingProperties.class, ItemEventProperties.class, WriteBehindProperties.class})
+public class ProcessingConfig {
+}
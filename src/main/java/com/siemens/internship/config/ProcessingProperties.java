@@ -0,0 +1,140 @@
+package com.siemens.internship.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tuning knobs for the batch processing engine behind {@code ItemService.processItemsAsync()}.
+ * Bound from the {@code items.processing.*} keys in application.properties.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.processing")
+public class ProcessingProperties {
+
+    public enum ExecutionMode { PLATFORM, VIRTUAL }
+
+    /**
+     * PLATFORM runs chunks on a fixed pool of {@code parallelism} threads. VIRTUAL runs every chunk on its own virtual
+     * thread and bounds the chunks in flight by the Hikari pool size instead. Use the "virtual-threads" profile to
+     * switch Tomcat and the @Async executor over at the same time.
+     */
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+
+    /** Number of ids read per keyset page; each page is loaded with one IN query and written with one UPDATE. */
+    private int chunkSize = 500;
+
+    /**
+     * Maximum number of chunks between load and write at the same time in PLATFORM mode, and the default number of
+     * writer workers. With the adaptive limiter enabled this is only where the limit starts.
+     */
+    private int parallelism = 4;
+
+    /**
+     * Adaptive limit on the chunks in flight, which replaces the fixed {@code parallelism} once enabled. It starts at
+     * {@code parallelism} and moves between {@code minLimit} and {@code maxLimit} following the per-item latency of
+     * the chunks (see AdaptiveLimiter), so it settles near the point where more concurrency only adds queueing.
+     */
+    private Limiter limiter = new Limiter();
+
+    @Getter
+    @Setter
+    public static class Limiter {
+        /** Off: always {@code parallelism} chunks in flight. */
+        private boolean enabled = true;
+
+        private int minLimit = 1;
+
+        /** 0 picks twice the Hikari pool size (half of the chunks can be writing, the rest in other stages). */
+        private int maxLimit = 0;
+
+        /** How much slower than its long-term average the per-item latency may get before the limit shrinks. */
+        private double tolerance = 1.5;
+    }
+
+    /**
+     * How far before the last watermark an incremental run starts scanning. Must exceed the longest write
+     * transaction, otherwise an item written by a transaction that commits after a run started can be missed.
+     */
+    private Duration watermarkLag = Duration.ofSeconds(30);
+
+    /**
+     * Workers, batch size and input queue of each pipeline stage, keyed by stage name: enrichment, email, status
+     * and write. A stage that isn't listed runs with one worker on whole chunks; the writer defaults to
+     * {@code parallelism} workers.
+     */
+    private Map<String, Stage> stages = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Stage {
+        /** Worker threads taking chunks from this stage's queue. */
+        private int parallelism = 1;
+
+        /** Maximum number of items passed to one ItemProcessor.process() call; 0 hands over the whole chunk. */
+        private int batchSize = 0;
+
+        /** Chunks that may wait in front of this stage before the previous stage blocks. */
+        private int queueCapacity = 2;
+    }
+
+    /**
+     * How long a claimed chunk belongs to its instance without a renewal. The instance renews the leases of the chunks
+     * it is still working on every lease-renewal, so a slow chunk keeps its owner; once a lease expires, any instance
+     * may claim the chunk again, which is how the chunks of a crashed instance get reprocessed.
+     */
+    private Duration lease = Duration.ofMinutes(5);
+
+    /** How often the leases of chunks in progress are extended; has to be well below the lease. */
+    private Duration leaseRenewal = Duration.ofMinutes(1);
+
+    /** How often every instance looks for ledger runs it can join: left behind by a crash, or started elsewhere. */
+    private Duration resumeInterval = Duration.ofSeconds(30);
+
+    /**
+     * Retries of transient database failures (lock timeouts, dropped connections, an open circuit) around the chunk
+     * loads, writes and ledger claims. Every attempt after the first waits a random time between zero and the
+     * exponential backoff ("full jitter"), so workers that failed together don't retry together.
+     */
+    private Retry retry = new Retry();
+
+    @Getter
+    @Setter
+    public static class Retry {
+        /** Attempts per call, the first one included; 1 disables retrying. */
+        private int maxAttempts = 4;
+
+        private Duration initialBackoff = Duration.ofMillis(100);
+
+        private Duration maxBackoff = Duration.ofSeconds(5);
+
+        private double multiplier = 2.0;
+    }
+
+    /**
+     * Circuit breaker over the same database calls. It opens once {@code failureRateThreshold} of the last
+     * {@code windowSize} calls failed (after at least {@code minimumCalls}); while open no new chunk is claimed and
+     * calls fail fast, after {@code openFor} a single trial call decides whether it closes again.
+     */
+    private Breaker breaker = new Breaker();
+
+    @Getter
+    @Setter
+    public static class Breaker {
+        private int windowSize = 50;
+
+        private int minimumCalls = 10;
+
+        private double failureRateThreshold = 0.5;
+
+        private Duration openFor = Duration.ofSeconds(10);
+    }
+
+    /** How long a finished job stays queryable through GET /api/items/process/jobs/{id}. */
+    private Duration jobRetention = Duration.ofHours(1);
+}
@@ -0,0 +1,33 @@
+package com.siemens.internship.config;
+
+import com.siemens.internship.service.ItemEventDispatcher;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ProcessingJobRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Startup profile support (application-fast-start.properties). With spring.main.lazy-initialization the @Scheduled
+ * beans would never be created, so nothing would dispatch events or resume runs; they are kept eager here.
+ */
+@Configuration
+@EnableConfigurationProperties(WarmupProperties.class)
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter scheduledBeansAreEager() {
+        return LazyInitializationExcludeFilter.forBeanTypes(ItemEventDispatcher.class, ProcessingJobRegistry.class);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "items.warmup", name = "enabled")
+    WarmupRunner warmupRunner(ItemService itemService, ObjectProvider<HikariDataSource> dataSource,
+                              WarmupProperties properties) {
+        return new WarmupRunner(itemService, dataSource.getIfAvailable(), properties);
+    }
+}
@@ -0,0 +1,32 @@
+package com.siemens.internship.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Warm-up done by {@link WarmupRunner} before the instance reports itself ready, bound from {@code items.warmup.*}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.warmup")
+public class WarmupProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Rounds of ItemService reads. A few hundred calls get the hot paths past the interpreter and the first JIT
+     * tier; they are cut short by max-duration.
+     */
+    private int iterations = 300;
+
+    /** Upper bound of the whole warm-up, so a slow database can't hold readiness back indefinitely. */
+    private Duration maxDuration = Duration.ofSeconds(10);
+
+    /** Requests sent to the instance itself, to create the lazy controllers and prime Spring MVC and Jackson. */
+    private List<String> requests = List.of("/api/items?limit=20", "/api/items?limit=20&status=NEW",
+            "/api/items?limit=20&fields=name,status", "/api/items/status/counts");
+}
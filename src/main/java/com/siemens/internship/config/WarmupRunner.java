@@ -0,0 +1,130 @@
+package com.siemens.internship.config;
+
+import com.siemens.internship.exception.NotFoundException;
+import com.siemens.internship.repository.ItemFilter;
+import com.siemens.internship.service.ItemService;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Primes a freshly started instance before it takes traffic. Spring Boot only publishes
+ * ReadinessState.ACCEPTING_TRAFFIC after all ApplicationRunners have returned, so while this runs the readiness probe
+ * still answers 503 and the load balancer keeps sending requests to the warm instances.
+ * <p>
+ * Three things are slow on the first requests of a cold JVM: opening the pooled connections, the ItemService and
+ * Hibernate paths running interpreted, and (with lazy initialization) creating the controllers and the MVC and Jackson
+ * machinery behind them. The warm-up goes through each of them once. Nothing is written, and a failure only ends
+ * the warm-up early; it never keeps the instance from starting.
+ */
+@Slf4j
+public class WarmupRunner implements ApplicationRunner, ApplicationContextAware {
+
+    // Never present: exercises the NotFoundException path of findById without filling the cache.
+    private static final long MISSING_ID = -1L;
+
+    private final ItemService itemService;
+    private final HikariDataSource dataSource;
+    private final WarmupProperties properties;
+
+    private ApplicationContext context;
+
+    public WarmupRunner(ItemService itemService, HikariDataSource dataSource, WarmupProperties properties) {
+        this.itemService = itemService;
+        this.dataSource = dataSource;
+        this.properties = properties;
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxDuration().toNanos();
+        try {
+            int connections = fillPool();
+            int rounds = warmService(deadline);
+            int requests = warmEndpoints(deadline);
+            log.info("Warm-up done in {} ms: {} pooled connections, {} service rounds, {} requests",
+                    (System.nanoTime() - start) / 1_000_000, connections, rounds, requests);
+        } catch (Exception e) {
+            log.warn("Warm-up stopped after {} ms", (System.nanoTime() - start) / 1_000_000, e);
+        }
+    }
+
+    /**
+     * Hikari fills the pool from its housekeeping thread, a connection at a time. Borrowing all of them at once makes
+     * the pool open them now, instead of under the first burst of requests.
+     */
+    private int fillPool() throws SQLException {
+        if (dataSource == null) return 0;
+
+        List<Connection> borrowed = new ArrayList<>();
+        try {
+            for (int i = 0; i < dataSource.getMaximumPoolSize(); i++) {
+                borrowed.add(dataSource.getConnection());
+            }
+        } finally {
+            for (Connection connection : borrowed) {
+                connection.close();
+            }
+        }
+        return borrowed.size();
+    }
+
+    private int warmService(long deadline) {
+        ItemFilter byStatus = new ItemFilter("NEW", null);
+        Set<String> fields = Set.of("name", "status");
+
+        int rounds = 0;
+        while (rounds < properties.getIterations() && System.nanoTime() < deadline) {
+            itemService.findPage(null, 20);
+            itemService.findPage(byStatus, null, 20);
+            itemService.findPage(null, 20, fields);
+            itemService.countByStatus(null);
+            try {
+                itemService.findById(MISSING_ID);
+            } catch (NotFoundException expected) {
+                // the common case of a lookup miss is a path worth compiling too
+            }
+            rounds++;
+        }
+        return rounds;
+    }
+
+    private int warmEndpoints(long deadline) throws Exception {
+        if (!(context instanceof WebServerApplicationContext web) || web.getWebServer() == null) return 0;
+
+        int port = web.getWebServer().getPort();
+        if (port <= 0) return 0;
+
+        int sent = 0;
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            for (String path : properties.getRequests()) {
+                if (System.nanoTime() >= deadline) break;
+
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+                sent++;
+            }
+        }
+        return sent;
+    }
+}
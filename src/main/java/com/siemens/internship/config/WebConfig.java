@@ -0,0 +1,22 @@
+package com.siemens.internship.config;
+
+import com.siemens.internship.controller.AdmissionInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Admission control runs before every /api/items handler; which budget applies is decided by @Admission.
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private AdmissionInterceptor admissionInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionInterceptor).addPathPatterns("/api/items/**");
+    }
+}
@@ -0,0 +1,36 @@
+package com.siemens.internship.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Write-behind of {@code PUT /api/items/{id}} (see ItemWriteBuffer). Bound from the {@code items.write-behind.*} keys.
+ * <p>
+ * Off by default: an accepted update is only in memory until the next flush, so a crash (unlike a shutdown, which
+ * drains the buffer) loses up to {@code flushInterval} of them.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.write-behind")
+public class WriteBehindProperties {
+
+    private boolean enabled = false;
+
+    /** Independently locked partitions of the buffer; writers of different ids rarely wait on each other. */
+    private int stripes = 16;
+
+    /** Ids written per flush transaction; reaching it in the buffer also starts a flush before the interval. */
+    private int maxBatch = 500;
+
+    /** Longest time an update waits in the buffer while it stays under {@code maxBatch}. */
+    private Duration flushInterval = Duration.ofMillis(100);
+
+    /** Ids the buffer holds at most; updates of further ids are written through until a flush makes room. */
+    private int maxPending = 100_000;
+
+    /** How long shutdown waits for the buffer to be written before giving up on what is left. */
+    private Duration drainTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,18 @@
+package com.siemens.internship.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a handler method behind the admission budget {@code items.admission.budgets.<value>}: a bulkhead on the
+ * requests handled at once and a token bucket on their rate. Endpoints sharing a name share the budget.
+ *
+ * @see AdmissionInterceptor
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Admission {
+    String value();
+}
@@ -0,0 +1,113 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.config.AdmissionProperties;
+import com.siemens.internship.service.resilience.TokenBucket;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Admits or rejects requests to endpoints annotated with {@link Admission} before they reach the controller.
+ * <p>
+ * The bulkhead is checked first: when its budget is already handling {@code maxConcurrent} requests the request is
+ * rejected with 503. Then the token bucket: when it is empty the request is rejected with 429. Both rejections carry
+ * Retry-After and cost neither a database connection nor more than a moment of a servlet thread, so a burst of
+ * full listings or processing runs can't starve the cheap endpoints, which have no budget of their own.
+ * <p>
+ * A bulkhead permit is held until the response is complete. For the streaming endpoints that is the async dispatch
+ * at the end of the stream, not the return of the handler method.
+ * <p>
+ * Rejections are counted in {@code items.admission.rejected} (tags: budget, reason) and the permits in use are
+ * exported as {@code items.admission.in.flight} per budget.
+ */
+@Slf4j
+@Component
+public class AdmissionInterceptor implements HandlerInterceptor {
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final boolean enabled;
+    private final Map<String, Budget> budgets = new HashMap<>();
+    private final MeterRegistry registry;
+
+    public AdmissionInterceptor(AdmissionProperties admissionProperties, ObjectProvider<MeterRegistry> registry) {
+        this.enabled = admissionProperties.isEnabled();
+        // Web slice tests run without the metrics auto-configuration.
+        this.registry = registry.getIfAvailable(SimpleMeterRegistry::new);
+        admissionProperties.getBudgets().forEach((name, settings) -> budgets.put(name, new Budget(name, settings)));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The async dispatch that completes a streaming response was admitted by its initial dispatch.
+        if (!enabled || request.getDispatcherType() == DispatcherType.ASYNC) return true;
+        if (!(handler instanceof HandlerMethod method)) return true;
+
+        Admission admission = method.getMethodAnnotation(Admission.class);
+        Budget budget = admission == null ? null : budgets.get(admission.value());
+        if (budget == null) return true;
+
+        if (budget.bulkhead != null && !budget.bulkhead.tryAcquire()) {
+            return reject(response, budget, "concurrency", HttpStatus.SERVICE_UNAVAILABLE, budget.retryAfter);
+        }
+        if (budget.rate != null && !budget.rate.tryAcquire()) {
+            if (budget.bulkhead != null) budget.bulkhead.release();
+            return reject(response, budget, "rate", HttpStatus.TOO_MANY_REQUESTS, budget.rate.retryAfter());
+        }
+        if (budget.bulkhead != null) request.setAttribute(PERMIT_ATTRIBUTE, budget.bulkhead);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // Not called for a dispatch that started async processing, only for the one that ends it.
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Semaphore permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permit.release();
+        }
+    }
+
+    private boolean reject(HttpServletResponse response, Budget budget, String reason, HttpStatus status, Duration retryAfter) {
+        log.debug("Rejected request over the {} limit of budget {}", reason, budget.name);
+        registry.counter("items.admission.rejected", "budget", budget.name, "reason", reason).increment();
+        // Retry-After is in whole seconds; rounded up so a client honouring it finds a token.
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        return false;
+    }
+
+    private class Budget {
+        final String name;
+        final Semaphore bulkhead;
+        final TokenBucket rate;
+        final Duration retryAfter;
+
+        Budget(String name, AdmissionProperties.Budget settings) {
+            this.name = name;
+            this.bulkhead = settings.getMaxConcurrent() > 0 ? new Semaphore(settings.getMaxConcurrent()) : null;
+            this.rate = settings.getRate() > 0 ? new TokenBucket(settings.getRate(), settings.getBurst()) : null;
+            this.retryAfter = settings.getRetryAfter();
+            if (bulkhead != null) {
+                int maxConcurrent = settings.getMaxConcurrent();
+                Gauge.builder("items.admission.in.flight", bulkhead, permits -> maxConcurrent - permits.availablePermits())
+                        .tag("budget", name)
+                        .register(registry);
+            }
+        }
+    }
+}
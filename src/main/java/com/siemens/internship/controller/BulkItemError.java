@@ -0,0 +1,7 @@
+package com.siemens.internship.controller;
+
+/**
+ * One constraint violation in a bulk request; {@code index} is the position of the offending item in the request body.
+ */
+public record BulkItemError(int index, String field, String message) {
+}
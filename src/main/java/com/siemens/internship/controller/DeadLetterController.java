@@ -0,0 +1,43 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.model.DeadLetter;
+import com.siemens.internship.service.DeadLetterReplay;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.resilience.CircuitOpenException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/// Items that fail processing on their own are moved to the dead-letter table instead of failing their whole chunk.
+/// They can be listed here and replayed, e.g. once the data or the code that rejected them has been fixed.
+@RestController
+@RequestMapping("/api/items/process/dead-letters")
+public class DeadLetterController {
+
+    @Autowired
+    private ItemService itemService;
+
+    @GetMapping
+    public ResponseEntity<List<DeadLetter>> getDeadLetters(@RequestParam(defaultValue = "" + ItemController.DEFAULT_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > ItemController.MAX_PAGE_SIZE) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+        return new ResponseEntity<>(itemService.findDeadLetters(limit), HttpStatus.OK);
+    }
+
+    /// ?ids=1,2,3 replays those items; without ids the oldest dead letters are replayed, one chunk's worth.
+    @Admission("process")
+    @PostMapping("/replay")
+    public ResponseEntity<DeadLetterReplay> replay(@RequestParam(required = false) List<Long> ids) {
+        try {
+            return new ResponseEntity<>(itemService.replayDeadLetters(ids), HttpStatus.OK);
+        } catch (CircuitOpenException e) {
+            return ItemController.serviceUnavailable(e.getRetryAfter());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
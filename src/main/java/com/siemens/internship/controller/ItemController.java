@@ -1,36 +1,117 @@
 package com.siemens.internship.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siemens.internship.exception.ConflictException;
 import com.siemens.internship.exception.NotFoundException;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemFilter;
+import com.siemens.internship.repository.StatusCount;
+import com.siemens.internship.service.ItemCacheStats;
+import com.siemens.internship.service.ItemChangeCounter;
+import com.siemens.internship.service.ItemPage;
 import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ProcessingMode;
+import com.siemens.internship.service.ProcessingSummary;
+import com.siemens.internship.service.resilience.CircuitOpenException;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/items")
 public class ItemController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE     = 1000;
+    static final int MAX_BULK_SIZE     = 10_000;
 
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ItemChangeCounter itemChanges;
+
+    @Admission("list")
     @GetMapping
-    public ResponseEntity<List<Item>> getAllItems() {
-        // Items list should be saved in a variable so we reduce the number of calls to .findAll() method,
-        // and return the status code according to the list's content.
+    public ResponseEntity<List<?>> getAllItems(@RequestParam(required = false) Long after,
+                                               @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                               @RequestParam(required = false) List<String> fields,
+                                               @RequestParam(required = false) String status,
+                                               @RequestParam(required = false) String email,
+                                               WebRequest request) {
+        // Listing used to return findAll(), i.e. the whole table in one array. It is now keyset-paginated: at most
+        // `limit` items with an id greater than `after`. The cursor of the next page is sent in the X-Next-Cursor
+        // header and as a Link rel="next", so the body stays the plain JSON array it has always been.
+        // `fields=id,status` selects only those columns instead of loading whole entities. `status` and `email`
+        // narrow the listing to exact matches; the cursor pages through the matches the same way.
+        if (limit < 1 || limit > MAX_PAGE_SIZE) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
 
-        List<Item> items = itemService.findAll();
-        if(items.isEmpty()) return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        // Conditional GET: every page carries the table-level version of the items as its ETag and Last-Modified
+        // (checkNotModified sets both headers). Sent back in If-None-Match / If-Modified-Since, it gets a 304 until an
+        // item changes, and that is decided before any page is loaded. The version is read first, so a page is never
+        // tagged with a version newer than its content.
+        if (request.checkNotModified(itemChanges.etag(), itemChanges.lastModified().toEpochMilli())) {
+            return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+        }
 
-        return new ResponseEntity<>(items, HttpStatus.OK);
+        ItemPage<?> page;
+        try {
+            ItemFilter filter = new ItemFilter(status, email);
+            page = fields == null ? itemService.findPage(filter, after, limit) : itemService.findPage(filter, after, limit, fields);
+        } catch (IllegalArgumentException e) { return new ResponseEntity<>(HttpStatus.BAD_REQUEST); }
+
+        if (page.items().isEmpty()) return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (page.nextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", page.nextCursor())
+                    .toUriString();
+            headers.set(NEXT_CURSOR_HEADER, page.nextCursor().toString());
+            headers.set(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return new ResponseEntity<>(page.items(), headers, HttpStatus.OK);
+    }
+
+    /// Number of items per status, or only for `status` when given. Counting is done on the status index, so it doesn't
+    /// read the items themselves; items without a status are counted under a null status.
+    @Admission("list")
+    @GetMapping("/status/counts")
+    public ResponseEntity<List<StatusCount>> getStatusCounts(@RequestParam(required = false) String status) {
+        return new ResponseEntity<>(itemService.countByStatus(status), HttpStatus.OK);
     }
 
     @PostMapping
@@ -38,17 +119,29 @@ public class ItemController {
         ///  Proper status code for creation is 201, not 200, so CREATED will be used instead of OK.
 
         if (result.hasErrors()) return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
-        
-        return new ResponseEntity<>(itemService.save(item), HttpStatus.CREATED);
+
+        Item saved = itemService.save(item);
+        return new ResponseEntity<>(saved, versionHeaders(saved), HttpStatus.CREATED);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Item> getItemById(@PathVariable Long id) {
+    public ResponseEntity<Item> getItemById(@PathVariable Long id, WebRequest request) {
         /// Here I set the returned status to NOT_FOUND because the resource doesn't exist in the database if the
         /// findById method fails.
+        /// The ETag is the item's version, which every write and every processing run moves. The lookup is served
+        /// from the items cache, so a 304 costs neither a query nor the serialization. Writes made through another
+        /// instance evict the entry once the event dispatcher sees their events (ItemEventDispatcher).
+        /// An update still in the write buffer isn't in the version yet: until it is flushed the item is sent without
+        /// validators, so a client holding the ETag of the state before it can't get a 304 for it.
         try {
             Optional<Item> item = itemService.findById(id);
-            if(item.isPresent()) return new ResponseEntity<>(item.get(), HttpStatus.OK);
+            if(item.isPresent()) {
+                if (itemService.hasPendingUpdate(id)) return new ResponseEntity<>(item.get(), HttpStatus.OK);
+                if (request.checkNotModified(etagOf(item.get()), lastModifiedOf(item.get()))) {
+                    return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+                }
+                return new ResponseEntity<>(item.get(), HttpStatus.OK);
+            }
         }
         catch (NotFoundException e) { return new ResponseEntity<>(HttpStatus.NOT_FOUND); }
 
@@ -56,21 +149,78 @@ public class ItemController {
     }
 
 
+    /// Counters for tuning spring.cache.caffeine.spec; 204 when caching is disabled (spring.cache.type=none).
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ItemCacheStats> getCacheStats() {
+        return itemService.cacheStats()
+                .map(stats -> new ResponseEntity<>(stats, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<Item> updateItem(@PathVariable Long id, @Valid @RequestBody Item item, BindingResult result) {
+    public ResponseEntity<Item> updateItem(@PathVariable Long id, @Valid @RequestBody Item item, BindingResult result,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         // The problem here was that in first instance, the item with the given id wasn't updated. That issue has been
         // fixed. Also, because this code intends to follow the Layer-Architecture, the update logic belongs to the
         // ItemService class. Thus, the updateItem() method has been implemented.
         // Given that the updateItem() method returns an Optional object, we should handle both cases.
         if(result.hasErrors()) return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+
+        // If-Match carries the ETag, i.e. the version, the client read. It is checked by the optimistic update itself
+        // (UPDATE ... WHERE version = ?) rather than by a read before it, so no write can slip in between.
+        // "*" only asks for the item to exist.
+        if (ifMatch != null) {
+            Long version = ifMatchVersion(ifMatch);
+            if (version == null && !ifMatch.strip().equals("*")) return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+            if (version != null) item.setVersion(version);
+        }
         try {
             Optional<Item> updatedItem = itemService.updateItem(id, item);
-            if(updatedItem.isPresent()) return new ResponseEntity<>(updatedItem.get(), HttpStatus.OK);
+            if(updatedItem.isPresent()) {
+                // Buffered (write-behind): the version is the one before this update, so it isn't sent as the ETag.
+                if (itemService.hasPendingUpdate(id)) return new ResponseEntity<>(updatedItem.get(), HttpStatus.OK);
+                return new ResponseEntity<>(updatedItem.get(), versionHeaders(updatedItem.get()), HttpStatus.OK);
+            }
         } catch (NotFoundException e) { return new ResponseEntity<>(HttpStatus.NOT_FOUND); }
+        // The item changed since the client read it (stale version) or kept changing while we retried.
+        catch (ConflictException e) {
+            return new ResponseEntity<>(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT);
+        }
 
         return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    static String etagOf(Item item) {
+        return item.getVersion() == null ? null : "\"" + item.getVersion() + "\"";
+    }
+
+    // Items are stamped with updatedAt on writes and processedAt by processing runs; either is a modification.
+    private static long lastModifiedOf(Item item) {
+        Instant updated = item.getUpdatedAt();
+        Instant processed = item.getProcessedAt();
+        if (updated == null) return processed == null ? -1 : processed.toEpochMilli();
+        return processed == null || processed.isBefore(updated) ? updated.toEpochMilli() : processed.toEpochMilli();
+    }
+
+    private static HttpHeaders versionHeaders(Item item) {
+        HttpHeaders headers = new HttpHeaders();
+        String etag = etagOf(item);
+        if (etag != null) headers.setETag(etag);
+        return headers;
+    }
+
+    // The version named by a single strong ETag, or null for anything else: "*", several tags (clients send back the
+    // one they got), a weak tag, which If-Match never matches, or a tag that isn't one of our versions.
+    private static Long ifMatchVersion(String ifMatch) {
+        List<ETag> tags = ETag.parse(ifMatch);
+        if (tags.size() != 1 || tags.get(0).weak() || tags.get(0).isWildcard()) return null;
+        try {
+            return Long.valueOf(tags.get(0).tag());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteItem(@PathVariable Long id) {
         // NO_CONTENT should be returned if the operation succeeds. Also, it's good approach to evaluate the existence
@@ -82,13 +232,131 @@ public class ItemController {
         } catch (NotFoundException ex) { return new ResponseEntity<>(HttpStatus.NOT_FOUND); }
     }
 
+    /// ?mode=INCREMENTAL (on every /process endpoint) limits the run to items changed since the last successful run.
+    /// Every endpoint returns only the items that moved to PROCESSED. Items a stage rejected (invalid e-mail) are
+    /// written with status REJECTED too, but only /process/summary and the job API report them, as rejected.
+    @Admission("process")
     @GetMapping("/process")
-    public ResponseEntity<List<Item>> processItems() {
+    public ResponseEntity<List<Item>> processItems(@RequestParam(defaultValue = "FULL") ProcessingMode mode) {
         try {
-            List<Item> processedItems = itemService.processItemsAsync().get();
+            List<Item> processedItems = itemService.processItemsAsync(mode).get();
             if (processedItems.isEmpty()) return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 
             return new ResponseEntity<>(processedItems, HttpStatus.OK);
-        } catch (InterruptedException | ExecutionException e) { return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR); }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (ExecutionException e) {
+            // The database kept failing until the circuit breaker opened: tell the client when it's worth retrying.
+            if (e.getCause() instanceof CircuitOpenException open) return serviceUnavailable(open.getRetryAfter());
+            log.error("Processing run failed", e.getCause());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /// Same run as /process, but the response only carries the counts and the ids processed, rejected or failed, so
+    /// neither side holds the processed items. Meant for large tables, where /process returns every item.
+    @Admission("process")
+    @GetMapping("/process/summary")
+    public ResponseEntity<ProcessingSummary> summarizeProcessing(@RequestParam(defaultValue = "FULL") ProcessingMode mode) {
+        try {
+            return new ResponseEntity<>(itemService.summarizeItemsAsync(mode).get(), HttpStatus.OK);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CircuitOpenException open) return serviceUnavailable(open.getRetryAfter());
+            log.error("Processing run failed", e.getCause());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    static <T> ResponseEntity<T> serviceUnavailable(Duration retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        return new ResponseEntity<>(headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /// Bulk endpoints take up to MAX_BULK_SIZE items per call and write them in one transaction with JDBC batching.
+    /// Every item is validated with the same constraints as the single-item endpoints; if any item is invalid,
+    /// nothing is written and the violations are returned with their index in the request.
+    @Admission("bulk")
+    @PostMapping("/bulk")
+    public ResponseEntity<?> createItems(@RequestBody List<Item> items) {
+        ResponseEntity<?> rejected = rejectBulk(items);
+        if (rejected != null) return rejected;
+
+        return new ResponseEntity<>(itemService.saveAll(items), HttpStatus.CREATED);
+    }
+
+    @Admission("bulk")
+    @PutMapping("/bulk")
+    public ResponseEntity<?> updateItems(@RequestBody List<Item> items) {
+        ResponseEntity<?> rejected = rejectBulk(items);
+        if (rejected != null) return rejected;
+        if (items.stream().anyMatch(item -> item.getId() == null)) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+        try {
+            return new ResponseEntity<>(itemService.updateAll(items), HttpStatus.OK);
+        } catch (NotFoundException e) { return new ResponseEntity<>(HttpStatus.NOT_FOUND); }
+        catch (ConflictException | OptimisticLockingFailureException e) { return new ResponseEntity<>(HttpStatus.CONFLICT); }
+    }
+
+    @Admission("bulk")
+    @DeleteMapping("/bulk")
+    public ResponseEntity<Void> deleteItems(@RequestBody List<Long> ids) {
+        if (ids.size() > MAX_BULK_SIZE) return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+
+        itemService.deleteAllById(ids);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    private ResponseEntity<?> rejectBulk(List<Item> items) {
+        if (items.size() > MAX_BULK_SIZE) return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+
+        List<BulkItemError> errors = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            for (ConstraintViolation<Item> violation : validator.validate(items.get(i))) {
+                errors.add(new BulkItemError(i, violation.getPropertyPath().toString(), violation.getMessage()));
+            }
+        }
+        return errors.isEmpty() ? null : new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
+
+    /// Streaming variant of /process. Every chunk is written as newline-delimited JSON as soon as its UPDATE has run,
+    /// so neither the server nor the client has to hold the whole result. The body is produced on the MVC async
+    /// executor, not on the servlet thread, and a slow reader blocks the workers, which stops new chunks from being
+    /// paged in. A client that disconnects makes the write fail, which aborts the run.
+    @Admission("process")
+    @GetMapping(value = "/process/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProcessedItems(@RequestParam(defaultValue = "FULL") ProcessingMode mode) {
+        StreamingResponseBody body = out -> {
+            Lock writeLock = new ReentrantLock();
+            try {
+                itemService.processItems(mode, chunk -> writeChunk(out, writeLock, chunk));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private void writeChunk(OutputStream out, Lock writeLock, List<Item> chunk) {
+        // Workers finish chunks concurrently, so lines are written under a lock to keep them whole. A ReentrantLock
+        // rather than synchronized, so a virtual thread blocked on a slow socket doesn't pin its carrier thread.
+        writeLock.lock();
+        try {
+            for (Item item : chunk) {
+                out.write(objectMapper.writeValueAsBytes(item));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
     }
 }
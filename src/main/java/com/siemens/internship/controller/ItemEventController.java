@@ -0,0 +1,67 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.config.ItemEventProperties;
+import com.siemens.internship.model.ItemEvent;
+import com.siemens.internship.service.ItemEventDispatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/// Change events of items (created, updated, deleted, processed), so consumers can follow the table instead of
+/// re-reading and diffing GET /api/items. Every event has a position in the stream; a consumer keeps the last one it
+/// has seen and asks for what came after it, through either of the two endpoints below.
+@RestController
+@RequestMapping("/api/items/events")
+public class ItemEventController {
+
+    @Autowired
+    private ItemEventDispatcher dispatcher;
+
+    @Autowired
+    private ItemEventProperties itemEventProperties;
+
+    /// Long poll: answers right away when there are events after `after`, otherwise waits up to `wait` (capped at
+    /// items.events.max-wait) for one and answers 204 if none came. The position of the last event is sent in
+    /// X-Next-Cursor. 410 means the events after `after` were purged: re-read the items, then follow from the head.
+    @Admission("events")
+    @GetMapping
+    public CompletableFuture<ResponseEntity<List<ItemEvent>>> getEvents(@RequestParam(defaultValue = "0") long after,
+                                                                        @RequestParam(defaultValue = "" + ItemController.DEFAULT_PAGE_SIZE) int limit,
+                                                                        @RequestParam(required = false) Duration wait) {
+        if (after < 0 || limit < 1 || limit > ItemController.MAX_PAGE_SIZE || (wait != null && wait.isNegative())) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        if (dispatcher.isExpired(after)) return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.GONE));
+
+        Duration maxWait = itemEventProperties.getMaxWait();
+        Duration timeout = wait == null || wait.compareTo(maxWait) > 0 ? maxWait : wait;
+        return dispatcher.poll(after, limit, timeout).thenApply(events -> {
+            if (events.isEmpty()) return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(ItemController.NEXT_CURSOR_HEADER, events.get(events.size() - 1).getPosition().toString());
+            return new ResponseEntity<>(events, headers, HttpStatus.OK);
+        });
+    }
+
+    /// Server-sent events from `after` on, or from the Last-Event-ID header that browsers and SSE clients send when
+    /// they reconnect. Event ids are the positions, event names the change types.
+    @Admission("events")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                                   @RequestParam(defaultValue = "0") long after) {
+        long from = lastEventId != null ? lastEventId : after;
+        if (from < 0) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        if (dispatcher.isExpired(from)) return new ResponseEntity<>(HttpStatus.GONE);
+
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(dispatcher.subscribe(from));
+    }
+}
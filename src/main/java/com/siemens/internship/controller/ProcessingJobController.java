@@ -0,0 +1,58 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.service.ProcessingJob;
+import com.siemens.internship.service.ProcessingJobRegistry;
+import com.siemens.internship.service.ProcessingMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.UUID;
+
+/// Job-based alternative to GET /api/items/process. Starting a job returns right away with its id; progress is
+/// polled with GET and the run can be stopped with DELETE. Each job keeps its own counters, so concurrent runs
+/// don't interfere with each other.
+@RestController
+@RequestMapping("/api/items/process/jobs")
+public class ProcessingJobController {
+
+    @Autowired
+    private ProcessingJobRegistry jobRegistry;
+
+    /// mode=INCREMENTAL only visits the items changed since the last successful run; cheap enough to poll often.
+    @Admission("process")
+    @PostMapping
+    public ResponseEntity<ProcessingJob.Status> startJob(@RequestParam(defaultValue = "FULL") ProcessingMode mode) {
+        // 202 because the work has only been accepted; Location points to the resource that reports its progress.
+        ProcessingJob job = jobRegistry.start(mode);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+
+        return ResponseEntity.accepted().location(location).body(job.status());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ProcessingJob.Status> getJob(@PathVariable UUID id) {
+        Optional<ProcessingJob> job = jobRegistry.find(id);
+        if (job.isEmpty()) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+        return new ResponseEntity<>(job.get().status(), HttpStatus.OK);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ProcessingJob.Status> cancelJob(@PathVariable UUID id) {
+        // Cancellation is cooperative: chunks already in flight still finish, so 202 is returned rather than 200.
+        // A job that has already ended can't be cancelled anymore, which is reported as a conflict.
+        Optional<ProcessingJob> job = jobRegistry.find(id);
+        if (job.isEmpty()) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        if (!job.get().cancel()) return new ResponseEntity<>(job.get().status(), HttpStatus.CONFLICT);
+
+        return new ResponseEntity<>(job.get().status(), HttpStatus.ACCEPTED);
+    }
+}
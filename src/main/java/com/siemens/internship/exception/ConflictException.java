@@ -0,0 +1,7 @@
+package com.siemens.internship.exception;
+
+public class ConflictException extends Exception {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
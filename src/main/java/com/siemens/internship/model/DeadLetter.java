@@ -0,0 +1,53 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An item that failed processing on its own, i.e. it still failed when its chunk was retried item by item. There is
+ * at most one row per item; further failures only update it. The row goes away once a replay processes the item.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class DeadLetter {
+    public static final int MAX_ERROR_LENGTH = 1000;
+
+    @Id
+    private Long itemId;
+
+    /** The run of the last failure; null when it happened during a replay. */
+    private UUID runId;
+    private String stage;
+    private String exception;
+
+    @Column(length = MAX_ERROR_LENGTH)
+    private String error;
+
+    private int failures;
+    private Instant firstFailedAt;
+    private Instant lastFailedAt;
+
+    public DeadLetter(Long itemId, Instant failedAt) {
+        this.itemId = itemId;
+        this.firstFailedAt = failedAt;
+    }
+
+    public void failed(UUID runId, String stage, RuntimeException cause, Instant failedAt) {
+        String message = String.valueOf(cause.getMessage());
+        this.runId = runId;
+        this.stage = stage;
+        this.exception = cause.getClass().getName();
+        this.error = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+        this.failures++;
+        this.lastFailedAt = failedAt;
+    }
+}
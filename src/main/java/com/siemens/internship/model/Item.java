@@ -1,38 +1,83 @@
 package com.siemens.internship.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
-import jakarta.validation.constraints.Pattern;
-import lombok.AllArgsConstructor;
+import com.siemens.internship.validation.ValidEmail;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
 @Entity
+// Incremental processing pages through changed rows ordered by (updated_at, id); see ItemRepository.findChangedAfter.
+// The listing filters by status and email and pages by id, so those indexes end in the id as well: a filtered page is
+// one range scan, and counting by status never touches the table.
+@Table(indexes = {
+        @Index(name = "idx_item_updated_at", columnList = "updated_at, id"),
+        @Index(name = "idx_item_status", columnList = "status, id"),
+        @Index(name = "idx_item_email", columnList = "email, id")
+})
 @Getter
 @Setter
-@AllArgsConstructor
 @NoArgsConstructor
 public class Item {
+    // A pooled sequence hands out 50 ids per round trip, and unlike IDENTITY it lets Hibernate batch the inserts.
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+    @SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = 50)
     private Long id;
     private String name;
     private String description;
     private String status;
 
-    // Add email regex validation
     /* Making sure structures like:
         codoreanluca@gmail.com
         codorean.luca@gmail.com
         codorean.do.luca@student.utcluj.ro are valid.
+       Same language as the regex [a-zA-Z][.0-9a-zA-Z]+@([.a-zA-Z]+)+(\.[a-z]+)+, checked in linear time.
     */
-    @Pattern(
-            regexp = "[a-zA-Z][.0-9a-zA-Z]+\\@([.a-zA-Z]+)+(\\.[a-z]+)+",
-            message = "The e-mail is invalid"
-    )
+    @ValidEmail
     private String email;
-}
\ No newline at end of file
+
+    // Optimistic locking: Hibernate turns every update of this entity into UPDATE ... WHERE id = ? AND version = ?
+    // and fails if no row matched, so concurrent writers can't silently overwrite each other.
+    @Version
+    private Long version;
+
+    // Set by the callback below on every insert / update made through the entity. The plain JDBC batches in
+    // ItemRepositoryCustomImpl bypass it and stamp the columns themselves: processing (updateProcessed) sets only
+    // processed_at, so a processed item doesn't look changed to the next incremental run, and the write-behind flush
+    // (updatePatched) sets updated_at, as the update it writes is a change.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant updatedAt;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant processedAt;
+
+    public Item(Long id, String name, String description, String status, String email) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.status = status;
+        this.email = email;
+    }
+
+    // Truncated to the column precision so the value compared in SQL is the one that was written.
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,56 @@
+package com.siemens.internship.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One change of an item, appended to the item_event outbox in the transaction that made the change (see ItemOutbox).
+ * <p>
+ * Rows are written with a null {@code position}. The dispatcher numbers them once they are committed, so positions
+ * follow commit order and have no gaps. A consumer that has seen position n can ask for everything after n and won't
+ * miss a change made by a transaction that committed late. The insertion {@code id} can't give that guarantee.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_item_event_position", columnList = "position", unique = true))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ItemEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED, PROCESSED }
+
+    // IDENTITY rather than a pooled sequence: ids handed out by the database in insertion order, so the dispatcher
+    // numbers rows in the order they were written, not in the order JVMs happened to reserve id blocks.
+    @JsonIgnore
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Offset in the event stream; the SSE event id and the {@code after} cursor. Null until dispatched. */
+    private Long position;
+
+    @Column(nullable = false)
+    private Long itemId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    /** Status of the item after the change; null for DELETED. */
+    private String status;
+
+    private Instant occurredAt;
+}
@@ -0,0 +1,25 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Progress of incremental processing: every item changed before {@code watermark} has been processed, except for
+ * writes still uncommitted at that time, which the next run picks up through items.processing.watermark-lag.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessingCheckpoint {
+    @Id
+    private String name;
+    private Instant watermark;
+}
@@ -0,0 +1,59 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A range of item ids [firstId, lastId] belonging to a {@link ProcessingRun}. A worker owns a chunk while it is
+ * CLAIMED and its lease hasn't expired; an expired lease means the owner died and any instance may claim it again.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(indexes = @Index(name = "idx_processing_chunk_run_state", columnList = "run_id, state"))
+public class ProcessingChunk {
+
+    public enum State { PENDING, CLAIMED, DONE, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "processing_chunk_seq")
+    @SequenceGenerator(name = "processing_chunk_seq", sequenceName = "processing_chunk_seq", allocationSize = 50)
+    private Long id;
+
+    private UUID runId;
+    private long firstId;
+    private long lastId;
+
+    @Enumerated(EnumType.STRING)
+    private State state;
+
+    private String owner;
+    private Instant leaseUntil;
+    private int attempts;
+    private int processed;
+
+    @Column(length = 1000)
+    private String error;
+
+    public ProcessingChunk(UUID runId, long firstId, long lastId) {
+        this.runId = runId;
+        this.firstId = firstId;
+        this.lastId = lastId;
+        this.state = State.PENDING;
+    }
+}
@@ -0,0 +1,50 @@
+package com.siemens.internship.model;
+
+import com.siemens.internship.service.ProcessingMode;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One processing run in the work ledger. The run is split into {@link ProcessingChunk}s when it starts; it stays
+ * RUNNING until every chunk is DONE or FAILED, whichever instance processed them, and survives restarts.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProcessingRun {
+
+    public enum State { RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    @Id
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    private ProcessingMode mode;
+
+    // Lower bound on updatedAt for INCREMENTAL runs; null for FULL runs.
+    private Instant since;
+
+    @Enumerated(EnumType.STRING)
+    private State state;
+
+    private Instant startedAt;
+    private Instant finishedAt;
+    private int chunks;
+
+    public ProcessingRun(UUID id, ProcessingMode mode, Instant since, Instant startedAt) {
+        this.id = id;
+        this.mode = mode;
+        this.since = since;
+        this.startedAt = startedAt;
+        this.state = State.RUNNING;
+    }
+}
@@ -0,0 +1,13 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.DeadLetter;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface DeadLetterRepository extends JpaRepository<DeadLetter, Long> {
+
+    /** Oldest failures first, so a replay without ids works through the backlog in order. */
+    List<DeadLetter> findAllByOrderByLastFailedAtAsc(Limit limit);
+}
@@ -0,0 +1,7 @@
+package com.siemens.internship.repository;
+
+import java.time.Instant;
+
+/** Keyset cursor of the incremental scan: the id of a changed item and when it was last written. */
+public record ItemChange(Long id, Instant updatedAt) {
+}
@@ -0,0 +1,36 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ItemEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ItemEventRepository extends JpaRepository<ItemEvent, Long> {
+
+    /** Dispatched events after the cursor, in stream order; runs on idx_item_event_position. */
+    List<ItemEvent> findByPositionGreaterThanOrderByPositionAsc(Long after, Limit limit);
+
+    /** Ids of committed events that haven't been given a position yet, oldest first. */
+    @Query("SELECT e.id FROM ItemEvent e WHERE e.position IS NULL ORDER BY e.id")
+    List<Long> findUndispatchedIds(Limit limit);
+
+    /** Last position handed out, or null while the stream is empty. */
+    @Query("SELECT MAX(e.position) FROM ItemEvent e")
+    Long findHead();
+
+    /** First position still stored, or null when nothing is; anything before it has been purged. */
+    @Query("SELECT MIN(e.position) FROM ItemEvent e")
+    Long findTail();
+
+    /** Drops dispatched events older than {@code before}; undispatched ones are always kept. */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ItemEvent e WHERE e.position IS NOT NULL AND e.occurredAt < :before")
+    int purge(@Param("before") Instant before);
+}
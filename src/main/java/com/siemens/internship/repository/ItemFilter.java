@@ -0,0 +1,18 @@
+package com.siemens.internship.repository;
+
+/**
+ * Equality filters of the item listing; a null attribute doesn't filter. Blank values count as absent, so
+ * {@code ?status=} lists everything rather than the items with an empty status.
+ */
+public record ItemFilter(String status, String email) {
+    public static final ItemFilter NONE = new ItemFilter(null, null);
+
+    public ItemFilter {
+        if (status != null && status.isBlank()) status = null;
+        if (email != null && email.isBlank()) email = null;
+    }
+
+    public boolean isEmpty() {
+        return status == null && email == null;
+    }
+}
@@ -1,12 +1,84 @@
 package com.siemens.internship.repository;
 
 import com.siemens.internship.model.Item;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
-    @Query("SELECT id FROM Item")
-    List<Long> findAllIds();
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
+
+    /** Keyset page of full entities: the first {@code limit} items with an id greater than {@code after}. */
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    // The filtered pages order by the whole index key, although the equality makes the leading column constant: H2
+    // only reads an index in order, and stops after `limit` entries, when ORDER BY matches its columns. Ordered by
+    // the id alone, a page of a common status sorted every matching row first.
+
+    /** Keyset page of the items with a status, on idx_item_status. */
+    List<Item> findByStatusAndIdGreaterThanOrderByStatusAscIdAsc(String status, Long after, Limit limit);
+
+    /** Keyset page of the items with an e-mail, on idx_item_email. */
+    List<Item> findByEmailAndIdGreaterThanOrderByEmailAscIdAsc(String email, Long after, Limit limit);
+
+    List<Item> findByStatusAndEmailAndIdGreaterThanOrderByStatusAscIdAsc(String status, String email, Long after, Limit limit);
+
+    long countByStatus(String status);
+
+    /** Items per status, answered from idx_item_status alone. */
+    @Query("""
+            SELECT new com.siemens.internship.repository.StatusCount(i.status, COUNT(i.id)) FROM Item i
+            GROUP BY i.status ORDER BY i.status""")
+    List<StatusCount> countGroupedByStatus();
+
+    /** The given ids that exist; the bulk delete uses it to record change events only for rows it removes. */
+    @Query("SELECT i.id FROM Item i WHERE i.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Every id in order, read with one query instead of a page per chunk. Rows come over in fetch-size batches while
+     * the stream is consumed, so memory doesn't depend on the table size; it has to be closed, and read inside a
+     * transaction, as some drivers (PostgreSQL) only use the fetch size with autocommit off.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT i.id FROM Item i ORDER BY i.id")
+    Stream<Long> streamIds();
+
+    /** Ids of the chunk [first, last] of a FULL run; ids deleted since the run was planned are simply missing. */
+    @Query("SELECT i.id FROM Item i WHERE i.id BETWEEN :first AND :last ORDER BY i.id")
+    List<Long> findIdsBetween(@Param("first") Long first, @Param("last") Long last);
+
+    /** Ids of the chunk [first, last] of an INCREMENTAL run, i.e. only the ones still changed since {@code since}. */
+    @Query("""
+            SELECT i.id FROM Item i
+            WHERE i.id BETWEEN :first AND :last AND i.updatedAt >= :since
+              AND (i.processedAt IS NULL OR i.processedAt < i.updatedAt)
+            ORDER BY i.id""")
+    List<Long> findChangedIdsBetween(@Param("first") Long first, @Param("last") Long last, @Param("since") Instant since);
+
+    /**
+     * Keyset page of the items written after {@code since} and not processed since, ordered by (updatedAt, id) so
+     * the scan runs on idx_item_updated_at and costs the number of changed rows, not the table size. The cursor is
+     * the last row of the previous page; start with {@code after = Long.MIN_VALUE}.
+     */
+    @Query("""
+            SELECT new com.siemens.internship.repository.ItemChange(i.id, i.updatedAt) FROM Item i
+            WHERE (i.updatedAt > :since OR (i.updatedAt = :since AND i.id > :after))
+              AND (i.processedAt IS NULL OR i.processedAt < i.updatedAt)
+            ORDER BY i.updatedAt, i.id""")
+    List<ItemChange> findChangedAfter(@Param("since") Instant since, @Param("after") Long after, Pageable page);
+
+    @Query("""
+            SELECT COUNT(i) FROM Item i
+            WHERE i.updatedAt >= :since AND (i.processedAt IS NULL OR i.processedAt < i.updatedAt)""")
+    long countChangedSince(@Param("since") Instant since);
 }
@@ -0,0 +1,47 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.Item;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Queries that Spring Data can't derive. Implemented by {@link ItemRepositoryCustomImpl} and exposed through
+ * {@link ItemRepository}.
+ */
+public interface ItemRepositoryCustom {
+
+    /**
+     * Keyset page over the id that selects only the given attributes, so neither entities nor unused columns are
+     * loaded. Each row maps attribute name to value, in the order of {@code fields}. Only the rows matching
+     * {@code filter} are returned.
+     */
+    List<Map<String, Object>> findProjectedAfter(ItemFilter filter, Long after, int limit, List<String> fields);
+
+    /**
+     * Loads a chunk for processing as plain, detached items: the columns the pipeline reads and writes back, in id
+     * order, without a persistence context. Ids that don't exist are skipped.
+     */
+    List<Item> findForProcessing(Collection<Long> ids);
+
+    /**
+     * Writes back the fields the processing pipeline may change (name, description, status, email), stamps
+     * processedAt and bumps the version, as one JDBC batch in one transaction. updatedAt is left alone. Every row is
+     * matched on id and version; the ids of items that were changed or deleted concurrently are returned and left
+     * untouched.
+     */
+    @Transactional
+    Set<Long> updateProcessed(List<Item> items, Instant processedAt);
+
+    /**
+     * Applies field-level patches as one JDBC batch: the non-null fields of each patch overwrite the row's, updatedAt
+     * is set and the version bumped. Rows are matched on the id alone, so a concurrent writer can't make a patch
+     * fail; the patch lands on top of whatever it wrote. Returns the ids that no longer exist.
+     */
+    @Transactional
+    Set<Long> updatePatched(Map<Long, Item> patches, Instant updatedAt);
+}
@@ -0,0 +1,149 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.Item;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Map<String, Object>> findProjectedAfter(ItemFilter filter, Long after, int limit, List<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Item> item = query.from(Item.class);
+
+        List<Selection<?>> columns = fields.stream()
+                .<Selection<?>>map(field -> item.get(field).alias(field))
+                .toList();
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.greaterThan(item.get("id"), after));
+        if (filter.status() != null) where.add(cb.equal(item.get("status"), filter.status()));
+        if (filter.email() != null) where.add(cb.equal(item.get("email"), filter.email()));
+        // Ordered by the key of the index the filter runs on, see ItemRepository.
+        List<Order> order = new ArrayList<>();
+        if (filter.status() != null) order.add(cb.asc(item.get("status")));
+        else if (filter.email() != null) order.add(cb.asc(item.get("email")));
+        order.add(cb.asc(item.get("id")));
+        query.multiselect(columns)
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(order);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(tuple -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    fields.forEach(field -> row.put(field, tuple.get(field)));
+                    return row;
+                })
+                .toList();
+    }
+
+    // One statement for every chunk size (the ids go in as a single array parameter), and rows become Items directly:
+    // no managed entities, no snapshot copies for dirty checking and nothing to clear afterwards. processed_at is left
+    // out since the write sets it anyway.
+    @Override
+    public List<Item> findForProcessing(Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("""
+                    SELECT id, name, description, status, email, version, updated_at
+                    FROM item WHERE id = ANY(?) ORDER BY id""");
+            statement.setArray(1, connection.createArrayOf("BIGINT", ids.toArray()));
+            statement.setFetchSize(ids.size());
+            return statement;
+        }, (rs, row) -> {
+            Item item = new Item(rs.getLong("id"), rs.getString("name"), rs.getString("description"),
+                    rs.getString("status"), rs.getString("email"));
+            item.setVersion(rs.getObject("version", Long.class));
+            OffsetDateTime updatedAt = rs.getObject("updated_at", OffsetDateTime.class);
+            if (updatedAt != null) item.setUpdatedAt(updatedAt.toInstant());
+            return item;
+        });
+    }
+
+    // Plain JDBC rather than entities: no dirty checking, no @PreUpdate (which would bump updatedAt), one batch.
+    @Override
+    public Set<Long> updateProcessed(List<Item> items, Instant processedAt) {
+        if (items.isEmpty()) return Set.of();
+
+        OffsetDateTime stamp = processedAt.atOffset(ZoneOffset.UTC);
+        int[] counts = jdbcTemplate.batchUpdate("""
+                        UPDATE item SET name = ?, description = ?, status = ?, email = ?, processed_at = ?,
+                                        version = version + 1
+                        WHERE id = ? AND version = ?""",
+                items, items.size(), (statement, item) -> {
+                    statement.setString(1, item.getName());
+                    statement.setString(2, item.getDescription());
+                    statement.setString(3, item.getStatus());
+                    statement.setString(4, item.getEmail());
+                    statement.setObject(5, stamp);
+                    statement.setLong(6, item.getId());
+                    statement.setObject(7, item.getVersion());
+                })[0];
+
+        Set<Long> stale = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) stale.add(items.get(i).getId());
+        }
+        return stale;
+    }
+
+    // Same batch shape as updateProcessed. COALESCE keeps the columns a patch doesn't carry, inside the UPDATE, so
+    // the rows don't have to be read first.
+    @Override
+    public Set<Long> updatePatched(Map<Long, Item> patches, Instant updatedAt) {
+        if (patches.isEmpty()) return Set.of();
+
+        OffsetDateTime stamp = updatedAt.atOffset(ZoneOffset.UTC);
+        List<Map.Entry<Long, Item>> rows = List.copyOf(patches.entrySet());
+        int[] counts = jdbcTemplate.batchUpdate("""
+                        UPDATE item SET name = COALESCE(?, name), description = COALESCE(?, description),
+                                        status = COALESCE(?, status), email = COALESCE(?, email), updated_at = ?,
+                                        version = version + 1
+                        WHERE id = ?""",
+                rows, rows.size(), (statement, row) -> {
+                    Item patch = row.getValue();
+                    statement.setString(1, patch.getName());
+                    statement.setString(2, patch.getDescription());
+                    statement.setString(3, patch.getStatus());
+                    statement.setString(4, patch.getEmail());
+                    statement.setObject(5, stamp);
+                    statement.setLong(6, row.getKey());
+                })[0];
+
+        Set<Long> missing = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) missing.add(rows.get(i).getKey());
+        }
+        return missing;
+    }
+}
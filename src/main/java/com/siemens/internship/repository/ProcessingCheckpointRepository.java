@@ -0,0 +1,22 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ProcessingCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface ProcessingCheckpointRepository extends JpaRepository<ProcessingCheckpoint, String> {
+
+    /**
+     * Moves the watermark forward to {@code to} in one statement. It never moves backwards, so when two runs overlap
+     * the one that started last wins. Returns 0 when the checkpoint doesn't exist or is already past {@code to}.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingCheckpoint c SET c.watermark = :to WHERE c.name = :name AND c.watermark < :to")
+    int advance(@Param("name") String name, @Param("to") Instant to);
+}
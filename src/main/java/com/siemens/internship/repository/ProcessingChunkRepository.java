@@ -0,0 +1,73 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ProcessingChunk;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Claiming is a compare-and-set on the chunk row rather than SELECT ... FOR UPDATE SKIP LOCKED: candidates are read
+ * without locks and each claim is an UPDATE that only matches while the chunk is still free, so two instances can
+ * never own the same chunk, on any database.
+ */
+public interface ProcessingChunkRepository extends JpaRepository<ProcessingChunk, Long> {
+
+    /**
+     * Ids of the chunks of a RUNNING run that are PENDING or whose lease has expired, lowest range first. Only ids,
+     * so no managed entity goes stale when the claim UPDATE changes the row behind it.
+     */
+    @Query("""
+            SELECT c.id FROM ProcessingChunk c, ProcessingRun r
+            WHERE c.runId = :runId AND r.id = c.runId
+              AND r.state = com.siemens.internship.model.ProcessingRun.State.RUNNING
+              AND (c.state = com.siemens.internship.model.ProcessingChunk.State.PENDING
+                   OR (c.state = com.siemens.internship.model.ProcessingChunk.State.CLAIMED AND c.leaseUntil < :now))
+            ORDER BY c.id""")
+    List<Long> findClaimable(@Param("runId") UUID runId, @Param("now") Instant now, Pageable page);
+
+    /** Takes ownership of a chunk if it is still claimable. Returns 1 if this caller won. */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE ProcessingChunk c
+            SET c.state = com.siemens.internship.model.ProcessingChunk.State.CLAIMED, c.owner = :owner,
+                c.leaseUntil = :leaseUntil, c.attempts = c.attempts + 1
+            WHERE c.id = :id
+              AND (c.state = com.siemens.internship.model.ProcessingChunk.State.PENDING
+                   OR (c.state = com.siemens.internship.model.ProcessingChunk.State.CLAIMED AND c.leaseUntil < :now))""")
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("leaseUntil") Instant leaseUntil,
+              @Param("now") Instant now);
+
+    /** Extends the leases of the given chunks that {@code owner} still holds. Returns the number extended. */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE ProcessingChunk c SET c.leaseUntil = :leaseUntil
+            WHERE c.id IN :ids AND c.owner = :owner
+              AND c.state = com.siemens.internship.model.ProcessingChunk.State.CLAIMED""")
+    int renew(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Moves a chunk out of CLAIMED, as long as {@code owner} still holds it. Returns 0 when the lease was lost, in
+     * which case the new owner's result counts.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE ProcessingChunk c
+            SET c.state = :state, c.processed = :processed, c.error = :error, c.leaseUntil = null
+            WHERE c.id = :id AND c.owner = :owner
+              AND c.state = com.siemens.internship.model.ProcessingChunk.State.CLAIMED""")
+    int release(@Param("id") Long id, @Param("owner") String owner, @Param("state") ProcessingChunk.State state,
+                @Param("processed") int processed, @Param("error") String error);
+
+    long countByRunIdAndStateIn(UUID runId, Collection<ProcessingChunk.State> states);
+}
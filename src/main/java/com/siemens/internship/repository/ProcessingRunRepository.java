@@ -0,0 +1,25 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ProcessingRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface ProcessingRunRepository extends JpaRepository<ProcessingRun, UUID> {
+
+    List<ProcessingRun> findByState(ProcessingRun.State state);
+
+    /** Ends a RUNNING run. Returns 0 when another instance (or a cancel) ended it first. */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE ProcessingRun r SET r.state = :state, r.finishedAt = :now
+            WHERE r.id = :id AND r.state = com.siemens.internship.model.ProcessingRun.State.RUNNING""")
+    int finish(@Param("id") UUID id, @Param("state") ProcessingRun.State state, @Param("now") Instant now);
+}
@@ -0,0 +1,5 @@
+package com.siemens.internship.repository;
+
+/** Number of items with a given status; the status is null for items that don't have one. */
+public record StatusCount(String status, long count) {
+}
@@ -0,0 +1,10 @@
+package com.siemens.internship.service;
+
+import java.util.List;
+
+/**
+ * Outcome of replaying dead letters: the items processed and written now, those that failed again, and those that
+ * no longer exist. The first and the last group have been removed from the dead-letter table.
+ */
+public record DeadLetterReplay(List<Long> replayed, List<Long> failed, List<Long> missing) {
+}
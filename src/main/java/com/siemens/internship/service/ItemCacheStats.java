@@ -0,0 +1,8 @@
+package com.siemens.internship.service;
+
+/**
+ * Snapshot of the item cache counters since startup. {@code size} is Caffeine's estimate and may briefly include
+ * entries that are about to be evicted.
+ */
+public record ItemCacheStats(long size, long hits, long misses, double hitRate, long evictions) {
+}
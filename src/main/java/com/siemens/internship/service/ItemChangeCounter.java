@@ -0,0 +1,57 @@
+package com.siemens.internship.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Table-level version of the items, behind the ETag and Last-Modified of GET /api/items. It moves on every item
+ * change committed through this instance (ItemOutbox counts them once the transaction has committed) and whenever the
+ * event dispatcher sees the head of the outbox advance, which is how changes made through other instances show up,
+ * a poll interval later at most. Reading it costs no query, so an unchanged listing is answered with 304 without
+ * touching the database.
+ * <p>
+ * Changes that leave no event behind are not seen from other instances: PROCESSED events can be turned off
+ * (items.events.include-processed), and then a processing run elsewhere only shows once something else changes.
+ */
+@Component
+public class ItemChangeCounter {
+
+    // Two instances, or one instance before and after a restart, both count from zero; the prefix keeps their
+    // ETags apart.
+    private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final AtomicLong changes = new AtomicLong();
+    private volatile Instant lastModified = Instant.now();
+
+    public void changed() {
+        changes.incrementAndGet();
+        lastModified = Instant.now();
+    }
+
+    /** Counts a change once the current transaction has committed; a rolled back write leaves the version alone. */
+    public void changedOnCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changed();
+            }
+        });
+    }
+
+    /** Strong ETag of the current version, quoted. */
+    public String etag() {
+        return "\"" + instance + "-" + Long.toString(changes.get(), 36) + "\"";
+    }
+
+    /**
+     * Time of the last change seen. HTTP dates have a resolution of a second, so a listing changed twice within the
+     * same second can look unmodified to a client that only sends If-Modified-Since; the ETag has no such gap.
+     */
+    public Instant lastModified() {
+        return lastModified;
+    }
+}
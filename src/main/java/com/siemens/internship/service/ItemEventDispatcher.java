@@ -0,0 +1,238 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.ItemEventProperties;
+import com.siemens.internship.model.ItemEvent;
+import com.siemens.internship.repository.ItemEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes the item_event outbox to subscribers. A scheduled round numbers the events committed since the last
+ * round (see {@link ItemOutbox#dispatch(int)}) and moves the head of the stream; everyone waiting for events past
+ * their cursor is then woken up.
+ * <p>
+ * Subscribers read the stored events themselves, from the position they last saw, so a subscriber that reconnects,
+ * or lands on another instance, resumes exactly where it left off. Nothing is buffered per subscriber, and a slow
+ * one only delays itself: every SSE stream and every long-poll completion runs on a virtual thread of its own.
+ * <p>
+ * The events are also how this instance learns about writes made through other instances: the items they name are
+ * evicted from the local items cache, so its ETags and 304s follow those writes a round later at most. Processing
+ * runs elsewhere are only seen that way while items.events.include-processed is on.
+ */
+@Slf4j
+@Component
+public class ItemEventDispatcher {
+
+    private record Waiter(long after, int limit, CompletableFuture<List<ItemEvent>> events) {}
+
+    private final ItemOutbox outbox;
+    private final ItemEventRepository eventRepository;
+    private final ItemEventProperties properties;
+    private final ItemChangeCounter changeCounter;
+    private final CacheManager cacheManager;
+    private final ExecutorService subscribers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition advanced = lock.newCondition();
+
+    // Highest position known to this instance; positions handed out by other instances are picked up every round.
+    private long head;
+
+    public ItemEventDispatcher(ItemOutbox outbox, ItemEventRepository eventRepository, ItemEventProperties properties,
+                               ItemChangeCounter changeCounter, ObjectProvider<CacheManager> cacheManager) {
+        this.outbox = outbox;
+        this.eventRepository = eventRepository;
+        this.properties = properties;
+        this.changeCounter = changeCounter;
+        this.cacheManager = cacheManager.getIfAvailable();
+    }
+
+    @PreDestroy
+    void stop() {
+        subscribers.shutdownNow();
+    }
+
+    /** One round of numbering; keeps going while rounds come back full, so a burst doesn't queue up behind the interval. */
+    @Scheduled(initialDelayString = "${items.events.poll-interval:PT0.2S}", fixedDelayString = "${items.events.poll-interval:PT0.2S}")
+    public void dispatch() {
+        int batchSize = properties.getBatchSize();
+        long before;
+        long after;
+        do {
+            before = head();
+            try {
+                after = outbox.dispatch(batchSize);
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Another instance dispatched the same item events, retrying next round");
+                return;
+            }
+            advanceTo(after);
+        } while (after - before >= batchSize);
+    }
+
+    @Scheduled(initialDelayString = "${items.events.purge-interval:PT1H}", fixedDelayString = "${items.events.purge-interval:PT1H}")
+    public void purge() {
+        int purged = eventRepository.purge(Instant.now().minus(properties.getRetention()));
+        if (purged > 0) log.info("Purged {} item events older than {}", purged, properties.getRetention());
+    }
+
+    /** Whether events after {@code after} have already been purged, so resuming from there would skip changes. */
+    public boolean isExpired(long after) {
+        Long tail = eventRepository.findTail();
+        return tail != null && after < tail - 1;
+    }
+
+    /** Up to {@code limit} dispatched events after position {@code after}. */
+    public List<ItemEvent> read(long after, int limit) {
+        return eventRepository.findByPositionGreaterThanOrderByPositionAsc(after, Limit.of(limit));
+    }
+
+    /**
+     * Long poll: completes with the events after {@code after} as soon as there are any, or with an empty list once
+     * {@code wait} has passed.
+     */
+    public CompletableFuture<List<ItemEvent>> poll(long after, int limit, Duration wait) {
+        List<ItemEvent> ready = read(after, limit);
+        if (!ready.isEmpty() || wait.isZero()) return CompletableFuture.completedFuture(ready);
+
+        Waiter waiter = new Waiter(after, limit, new CompletableFuture<>());
+        waiters.add(waiter);
+        waiter.events()
+                .completeOnTimeout(List.of(), wait.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((events, failure) -> waiters.remove(waiter));
+        // Dispatched between the read above and the registration: nobody is going to wake this waiter up.
+        if (head() > after) wake(waiter);
+        return waiter.events();
+    }
+
+    /**
+     * Server-sent events from position {@code after} on: every event is sent with its position as id and its type as
+     * name, so a client reconnecting with Last-Event-ID continues where it stopped. The stream ends with the MVC
+     * async timeout (spring.mvc.async.request-timeout) or when the client goes away.
+     */
+    public SseEmitter subscribe(long after) {
+        SseEmitter emitter = new SseEmitter();
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(e -> open.set(false));
+        subscribers.execute(() -> stream(emitter, after, open));
+        return emitter;
+    }
+
+    private void stream(SseEmitter emitter, long after, AtomicBoolean open) {
+        long cursor = after;
+        try {
+            while (open.get()) {
+                List<ItemEvent> events = read(cursor, properties.getBatchSize());
+                for (ItemEvent event : events) {
+                    emitter.send(SseEmitter.event()
+                            .id(event.getPosition().toString())
+                            .name(event.getType().name())
+                            .data(event, MediaType.APPLICATION_JSON));
+                    cursor = event.getPosition();
+                }
+                if (events.isEmpty() && !awaitPast(cursor, properties.getHeartbeat())) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away, or the response was completed (timeout) while we were sending.
+            log.debug("Item event stream closed at position {}: {}", cursor, e.toString());
+        } catch (InterruptedException e) {
+            emitter.complete();
+        } catch (RuntimeException e) {
+            log.warn("Item event stream failed at position {}", cursor, e);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void advanceTo(long position) {
+        long previous;
+        lock.lock();
+        try {
+            if (position <= head) return;
+            previous = head;
+            head = position;
+            advanced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        // New events may come from another instance, whose writes this instance's counter and cache haven't seen.
+        evictChanged(previous, position);
+        changeCounter.changed();
+        for (Waiter waiter : waiters) {
+            if (waiter.after() < position) wake(waiter);
+        }
+    }
+
+    // Evicts the items named by the events after position after, up to upTo. A gap wider than a round (the first round
+    // after startup, or a burst numbered elsewhere) clears the whole cache instead of reading every event of it.
+    private void evictChanged(long after, long upTo) {
+        Cache cache = cacheManager == null ? null : cacheManager.getCache(ItemService.ITEMS_CACHE);
+        if (cache == null) return;
+        if (upTo - after > properties.getBatchSize()) {
+            cache.clear();
+            return;
+        }
+        for (ItemEvent event : read(after, (int) (upTo - after))) cache.evict(event.getItemId());
+    }
+
+    private void wake(Waiter waiter) {
+        if (!waiters.remove(waiter)) return;
+        subscribers.execute(() -> {
+            try {
+                waiter.events().complete(read(waiter.after(), waiter.limit()));
+            } catch (RuntimeException e) {
+                waiter.events().completeExceptionally(e);
+            }
+        });
+    }
+
+    // Returns false if nothing was dispatched past the cursor within the timeout.
+    private boolean awaitPast(long cursor, Duration timeout) throws InterruptedException {
+        long nanos = timeout.toNanos();
+        lock.lock();
+        try {
+            while (head <= cursor) {
+                if (nanos <= 0) return false;
+                nanos = advanced.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long head() {
+        lock.lock();
+        try {
+            return head;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
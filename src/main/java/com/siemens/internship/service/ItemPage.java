@@ -0,0 +1,10 @@
+package com.siemens.internship.service;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is the id to pass as {@code after} for the following
+ * page, or null when this is the last one.
+ */
+public record ItemPage<T>(List<T> items, Long nextCursor) {
+}
@@ -1,64 +1,499 @@
 package com.siemens.internship.service;
 
+import com.siemens.internship.config.ProcessingProperties;
+import com.siemens.internship.config.ProcessingProperties.ExecutionMode;
+import com.siemens.internship.config.WriteBehindProperties;
+import com.siemens.internship.exception.ConflictException;
 import com.siemens.internship.exception.NotFoundException;
+import com.siemens.internship.model.DeadLetter;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemEvent;
+import com.siemens.internship.model.ProcessingCheckpoint;
+import com.siemens.internship.model.ProcessingChunk;
+import com.siemens.internship.model.ProcessingRun;
+import com.siemens.internship.repository.DeadLetterRepository;
+import com.siemens.internship.repository.ItemFilter;
 import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingCheckpointRepository;
+import com.siemens.internship.repository.StatusCount;
+import com.siemens.internship.service.pipeline.ItemBatch;
+import com.siemens.internship.service.pipeline.ItemProcessor;
+import com.siemens.internship.service.pipeline.ProcessingPipeline;
+import com.siemens.internship.service.pipeline.StatusTransitionProcessor;
+import com.siemens.internship.service.resilience.AdaptiveLimiter;
+import com.siemens.internship.service.resilience.DatabaseGuard;
+import com.siemens.internship.service.resilience.SingleFlight;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
+// Every public method is timed as items.service{method=...} through Micrometer's TimedAspect
+// (management.observations.annotations.enabled). Cache hits on findById are answered before the aspect runs; they
+// are counted by the cache.gets meter instead.
+@Slf4j
 @Service
+@Timed("items.service")
 public class ItemService {
+    public static final String ITEMS_CACHE = "items";
+
+    /** Attributes that can be requested through the {@code fields} parameter of the listing endpoint. */
+    public static final Set<String> LISTABLE_FIELDS = Set.of("id", "name", "description", "status", "email");
+
     @Autowired
     private ItemRepository itemRepository;
-    private static ExecutorService executor = Executors.newFixedThreadPool(10);
-    private List<Item> processedItems       = Collections.synchronizedList(new ArrayList<>());
-    private AtomicInteger processedCount    = new AtomicInteger(0);
+    @Autowired
+    private ProcessingProperties processingProperties;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private ProcessingMetrics processingMetrics;
+    @Autowired
+    private ProcessingCheckpointRepository checkpointRepository;
+    @Autowired
+    private ProcessingPipeline pipeline;
+    @Autowired
+    private ProcessingLedger ledger;
+    @Autowired
+    private DatabaseGuard guard;
+    @Autowired
+    private DeadLetterRepository deadLetterRepository;
+    @Autowired
+    private ItemOutbox outbox;
+    @Autowired
+    private TransactionOperations transactions;
+    @Autowired
+    private WriteBehindProperties writeBehindProperties;
+    @Autowired(required = false)
+    private DataSource dataSource;
+    private ExecutorService executor;
+    private AdaptiveLimiter limiter;
+    // Only there with items.write-behind.enabled; see updateItem.
+    private ItemWriteBuffer writeBuffer;
+
+    // Concurrent identical work is done once: cache misses for the same id share one read, and processing requests
+    // of the same mode share one run. See findById and processItemsAsync / summarizeItemsAsync.
+    private final SingleFlight<Long, Optional<Item>> lookups = new SingleFlight<>();
+    private final SingleFlight<ProcessingMode, List<Item>> runs = new SingleFlight<>();
+    private final SingleFlight<ProcessingMode, ProcessingSummary> summaries = new SingleFlight<>();
 
+    // The executor is owned by the service, so it is shut down together with the context instead of leaking as a
+    // static field. It only hosts the pipeline's stage workers, whose number is fixed per run by
+    // items.processing.stages.*, so the platform variant doesn't need a size of its own. In VIRTUAL mode every
+    // worker is a virtual thread.
+    @PostConstruct
+    void startExecutor() {
+        executor = processingProperties.getExecutionMode() == ExecutionMode.VIRTUAL
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newCachedThreadPool();
+        processingMetrics.bindExecutor(executor);
+        limiter = newLimiter();
+        processingMetrics.bindLimiter(limiter);
+        if (writeBehindProperties.isEnabled()) {
+            writeBuffer = new ItemWriteBuffer(writeBehindProperties.getStripes(), writeBehindProperties.getMaxBatch(),
+                    writeBehindProperties.getMaxPending(), writeBehindProperties.getFlushInterval(),
+                    ItemService::merge, this::writeBuffered);
+            processingMetrics.bindWriteBuffer(writeBuffer);
+        }
+    }
+
+    // Buffered updates are written before the context goes on to close the data source. Whatever can't be written
+    // within items.write-behind.drain-timeout is lost, and said so.
+    @PreDestroy
+    void stopExecutor() {
+        if (writeBuffer != null) {
+            int lost = writeBuffer.drain(writeBehindProperties.getDrainTimeout());
+            if (lost > 0) log.error("{} buffered item updates could not be written before shutdown and are lost", lost);
+        }
+        executor.shutdown();
+    }
 
     public List<Item> findAll() {
         return itemRepository.findAll();
     }
 
+    /*
+        Listing is keyset-paginated on the id: a page is "WHERE id > after ORDER BY id LIMIT n", which costs the
+        same on the first and on the last page and never loads more than n rows. One extra row is fetched to tell
+        whether another page exists, so the last page doesn't advertise a cursor that would return nothing.
+        Filtered pages work the same way on the (status, id) and (email, id) indexes: the equality fixes the prefix
+        and the cursor continues the range scan inside it.
+     */
+
+    public ItemPage<Item> findPage(Long after, int limit) {
+        return findPage(ItemFilter.NONE, after, limit);
+    }
+
+    public ItemPage<Item> findPage(ItemFilter filter, Long after, int limit) {
+        long start = startOf(after);
+        Limit page = Limit.of(limit + 1);
+        List<Item> items;
+        if (filter.status() != null && filter.email() != null) {
+            items = itemRepository.findByStatusAndEmailAndIdGreaterThanOrderByStatusAscIdAsc(filter.status(), filter.email(), start, page);
+        } else if (filter.status() != null) {
+            items = itemRepository.findByStatusAndIdGreaterThanOrderByStatusAscIdAsc(filter.status(), start, page);
+        } else if (filter.email() != null) {
+            items = itemRepository.findByEmailAndIdGreaterThanOrderByEmailAscIdAsc(filter.email(), start, page);
+        } else {
+            items = itemRepository.findByIdGreaterThanOrderByIdAsc(start, page);
+        }
+        return toPage(items, limit, Item::getId);
+    }
+
+    public ItemPage<Map<String, Object>> findPage(Long after, int limit, Collection<String> fields) {
+        return findPage(ItemFilter.NONE, after, limit, fields);
+    }
+
+    /**
+     * Same as {@link #findPage(ItemFilter, Long, int)} but only the requested attributes are selected. The id is
+     * always included because it is the cursor. Throws IllegalArgumentException for attributes outside
+     * {@link #LISTABLE_FIELDS}.
+     */
+    public ItemPage<Map<String, Object>> findPage(ItemFilter filter, Long after, int limit, Collection<String> fields) {
+        List<String> columns = new ArrayList<>();
+        columns.add("id");
+        for (String field : fields) {
+            if (!LISTABLE_FIELDS.contains(field)) throw new IllegalArgumentException("Unknown field: " + field);
+            if (!columns.contains(field)) columns.add(field);
+        }
+
+        List<Map<String, Object>> rows = itemRepository.findProjectedAfter(filter, startOf(after), limit + 1, columns);
+        return toPage(rows, limit, row -> (Long) row.get("id"));
+    }
+
+    /**
+     * Number of items per status, or only the given one. Both are answered from idx_item_status without reading
+     * the table, but the grouped count still walks every entry of the index.
+     */
+    public List<StatusCount> countByStatus(String status) {
+        if (status == null) return itemRepository.countGroupedByStatus();
+        return List.of(new StatusCount(status, itemRepository.countByStatus(status)));
+    }
+
+    private static long startOf(Long after) {
+        return after == null ? Long.MIN_VALUE : after;
+    }
+
+    private static <T> ItemPage<T> toPage(List<T> rows, int limit, Function<T, Long> idOf) {
+        if (rows.size() <= limit) return new ItemPage<>(rows, null);
+
+        List<T> page = rows.subList(0, limit);
+        return new ItemPage<>(page, idOf.apply(page.get(limit - 1)));
+    }
+
+    // Every write below appends its change events to the outbox (ItemOutbox) in the same transaction as the write
+    // itself, which is what lets /api/items/events promise exactly the committed changes.
+
+    // Point reads are served from the "items" cache (Caffeine, see spring.cache.caffeine.spec). Every write path
+    // below either refreshes or evicts the entry, so the cache never serves a value older than the last write made
+    // through this service. A refresh can race with a miss that read the row before the write committed and puts it
+    // after the refresh; the cache keeps the higher version of the two (see CacheConfig).
+    //
+    // While an update of the id sits in the write buffer, reads go past the cache: what they return is the row with
+    // the update on top, which still carries the version of the last commit, and cached it would outlive the flush
+    // under that version. The flush puts the rows as written instead.
+    //
+    // A hot id that has just been evicted is missed by all of its concurrent readers at once. They share one
+    // repository read, and the first of them to return puts it in the cache. The read is shared, not the exception:
+    // every caller of a missing id gets a NotFoundException of its own.
+    @Cacheable(cacheNames = ITEMS_CACHE, key = "#id", condition = "!#root.target.hasPendingUpdate(#id)")
     public Optional<Item> findById(Long id) throws NotFoundException {
-        return Optional.ofNullable(
-            itemRepository
-                    .findById(id)
-                    .orElseThrow(() -> new NotFoundException("Item not found at the given id.")
-            ));
+        return Optional.of(read(id).orElseThrow(() -> new NotFoundException("Item not found at the given id.")));
     }
 
-    public Item save(Item item) {
-        return itemRepository.save(item);
+    // The row as committed, with the updates still in the write buffer on top. The buffer is looked at first: an
+    // update flushed while the row is being read is then in the row, if it's no longer in the snapshot.
+    private Optional<Item> read(Long id) {
+        Item pending = writeBuffer == null ? null : writeBuffer.pending(id);
+        Optional<Item> row = await(lookups.execute(id, () -> CompletableFuture.completedFuture(itemRepository.findById(id))));
+        if (pending == null || row.isEmpty()) return row;
+
+        // The row may be shared with other readers of the id; the patch goes onto a copy of it.
+        Item item = ItemWriteBuffer.copyOf(row.get());
+        merge(item, pending);
+        return Optional.of(item);
     }
 
+    // Outcome of a shared call, with the failure of the call that ran it rethrown as it was.
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
 
-    // In this case, Transactional makes sure that in case of any errors, the data is not affected.
     @Transactional
-    public Optional<Item> updateItem(Long id, Item item) throws NotFoundException {
-        return itemRepository.findById(id).map(existingItem -> {
-            if (item.getName() != null)         existingItem.setName(item.getName());
-            if (item.getDescription() != null)  existingItem.setDescription(item.getDescription());
-            if (item.getStatus() != null)       existingItem.setStatus(item.getStatus());
-            if (item.getEmail() != null)        existingItem.setEmail(item.getEmail());
-
-            return itemRepository.save(existingItem);
-        });
+    @CachePut(cacheNames = ITEMS_CACHE, key = "#result.id")
+    public Item save(Item item) {
+        ItemEvent.Type type = item.getId() == null ? ItemEvent.Type.CREATED : ItemEvent.Type.UPDATED;
+        Item saved = itemRepository.save(item);
+        outbox.append(type, List.of(saved));
+        return saved;
+    }
+
+
+    /*
+        Updates are optimistic: Item carries a @Version, so the save below is an UPDATE ... WHERE id = ? AND
+        version = ? and fails with OptimisticLockingFailureException when another writer got there first. Two cases:
+        - the client sent the version it read: its patch was based on stale data, so we answer with a conflict
+          straight away and let it re-read;
+        - no version was sent: the patch is a blind field-level merge, so it's re-applied on a fresh read, up to
+          MAX_UPDATE_ATTEMPTS times.
+        The method is deliberately not @Transactional: every attempt has to run in its own transaction (the write and
+        its change event) and see the row as committed by the winner, which a retry inside one outer transaction
+        would not.
+     */
+    static final int MAX_UPDATE_ATTEMPTS = 3;
+
+    /*
+        With items.write-behind.enabled, an update without a version is only merged into the write buffer
+        (ItemWriteBuffer) and answered from there; the flusher writes it, batched with the other buffered ids, within
+        items.write-behind.flush-interval. Reads of the id see it straight away (see read), listings and counts only
+        once it is flushed. The version in the answer is the one of the last committed write: flushing bumps it, and
+        until then two blind updates of the id don't conflict, as they never do. An update that carries a version,
+        or one that doesn't fit into a full buffer, is written through as below, together with whatever is still
+        buffered for the id, so that can't land later and overwrite it.
+        Unlike the written through update, which puts the saved item into the cache, a buffered one evicts it: the
+        committed version only exists once the flush is done, and the flush puts the rows it wrote.
+     */
+    public Optional<Item> updateItem(Long id, Item item) throws NotFoundException, ConflictException {
+        if (writeBuffer == null) return updateThrough(id, item);
+
+        if (item.getVersion() == null) {
+            // What the client would read: the buffered view, the cached item when nothing is pending (a buffered
+            // update evicts it and its flush puts the row written, so it holds every earlier one), or the row with
+            // the buffer on top.
+            Item view = writeBuffer.view(id);
+            if (view == null && writeBuffer.pending(id) == null) view = cached(id);
+            Optional<Item> current = view != null ? Optional.of(view) : read(id);
+            if (current.isEmpty()) return Optional.empty();
+
+            Item accepted = writeBuffer.offer(id, item, current.get());
+            if (accepted != null) {
+                evictFromCache(List.of(id));
+                return Optional.of(accepted);
+            }
+        }
+
+        Item pending = writeBuffer.take(id);
+        if (pending == null) return updateThrough(id, item);
+        Item combined = ItemWriteBuffer.copyOf(pending);
+        merge(combined, item);
+        combined.setVersion(item.getVersion());
+        try {
+            return updateThrough(id, combined);
+        } catch (ConflictException | RuntimeException e) {
+            writeBuffer.restore(Map.of(id, pending));
+            throw e;
+        }
+    }
+
+    /**
+     * Whether an update of the item has been accepted into the write buffer and isn't committed yet. Until it is,
+     * the item as read carries that update but still the version of the last commit, so the version can't tell the
+     * two apart.
+     */
+    public boolean hasPendingUpdate(Long id) {
+        return writeBuffer != null && writeBuffer.pending(id) != null;
+    }
+
+    private Optional<Item> updateThrough(Long id, Item item) throws ConflictException {
+        for (int attempt = 1; ; attempt++) {
+            Optional<Item> current = itemRepository.findById(id);
+            if (current.isEmpty()) return Optional.empty();
+
+            Item existingItem = current.get();
+            checkVersion(existingItem, item);
+            merge(existingItem, item);
+            try {
+                Item saved = transactions.execute(status -> {
+                    Item written = itemRepository.save(existingItem);
+                    outbox.append(ItemEvent.Type.UPDATED, List.of(written));
+                    return written;
+                });
+                // A concurrent miss putting the row it read before this commit, before or after this put, loses.
+                Cache cache = cacheManager.getCache(ITEMS_CACHE);
+                if (cache != null) cache.put(id, saved);
+                return Optional.of(saved);
+            } catch (OptimisticLockingFailureException e) {
+                if (item.getVersion() != null || attempt >= MAX_UPDATE_ATTEMPTS) {
+                    throw new ConflictException("Item " + id + " was modified concurrently, re-read it and retry.");
+                }
+                log.debug("Concurrent update of item {}, retrying ({}/{})", id, attempt, MAX_UPDATE_ATTEMPTS);
+            }
+        }
+    }
+
+    private static void checkVersion(Item existingItem, Item item) throws ConflictException {
+        if (item.getVersion() != null && !item.getVersion().equals(existingItem.getVersion())) {
+            throw new ConflictException("Item " + existingItem.getId() + " is at version " + existingItem.getVersion()
+                    + ", not " + item.getVersion() + ".");
+        }
     }
 
+    // Field-level merge shared by the single and the bulk update: only the attributes present in the request win.
+    private static void merge(Item existingItem, Item item) {
+        if (item.getName() != null)         existingItem.setName(item.getName());
+        if (item.getDescription() != null)  existingItem.setDescription(item.getDescription());
+        if (item.getStatus() != null)       existingItem.setStatus(item.getStatus());
+        if (item.getEmail() != null)        existingItem.setEmail(item.getEmail());
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = ITEMS_CACHE, key = "#id")
     public void deleteById(Long id) throws  NotFoundException {
         if(this.findById(id).isEmpty()) throw new NotFoundException("No item found at the given id.");
+        takeBuffered(List.of(id));
         itemRepository.deleteById(id);
+        outbox.deleted(List.of(id));
+    }
+
+
+    /*
+        Bulk writes. All of them run in one transaction and rely on Hibernate's JDBC batching
+        (hibernate.jdbc.batch_size with ordered inserts / updates), and on the pooled item_seq sequence for ids, so
+        a thousand rows cost a few dozen round trips instead of a thousand. Cache entries are evicted rather than
+        refreshed; the cache manager is transaction-aware, so the evictions happen only after the commit.
+     */
+
+    /** Inserts all items; any id present in the request is ignored, as these are always new rows. */
+    @Transactional
+    public List<Item> saveAll(List<Item> items) {
+        items.forEach(item -> item.setId(null));
+        List<Item> saved = itemRepository.saveAll(items);
+        outbox.append(ItemEvent.Type.CREATED, saved);
+        return saved;
+    }
+
+    /**
+     * Applies every patch with the same field-level merge as {@link #updateItem(Long, Item)}. Either all items are
+     * updated or, if any id does not exist or any patch carries a stale version, none is. There is no retry here:
+     * a concurrent writer surfaces as OptimisticLockingFailureException at commit.
+     */
+    @Transactional(rollbackOn = {NotFoundException.class, ConflictException.class})
+    public List<Item> updateAll(List<Item> patches) throws NotFoundException, ConflictException {
+        Map<Long, Item> buffered = takeBuffered(patches.stream().map(Item::getId).toList());
+        if (!buffered.isEmpty()) {
+            patches = patches.stream().map(patch -> underneath(buffered.get(patch.getId()), patch)).toList();
+        }
+        Map<Long, Item> existing = new HashMap<>();
+        itemRepository.findAllById(patches.stream().map(Item::getId).toList())
+                .forEach(item -> existing.put(item.getId(), item));
+
+        List<Long> missing = patches.stream().map(Item::getId).filter(id -> !existing.containsKey(id)).toList();
+        if (!missing.isEmpty()) throw new NotFoundException("No items found at the given ids: " + missing);
+
+        for (Item patch : patches) {
+            checkVersion(existing.get(patch.getId()), patch);
+            merge(existing.get(patch.getId()), patch);
+        }
+        evictFromCache(existing.keySet());
+        List<Item> saved = itemRepository.saveAll(existing.values());
+        outbox.append(ItemEvent.Type.UPDATED, saved);
+        return saved;
+    }
+
+    /** Deletes the given ids with a single DELETE ... WHERE id IN (...); ids that don't exist are ignored. */
+    @Transactional
+    public void deleteAllById(List<Long> ids) {
+        takeBuffered(ids);
+        List<Long> existing = itemRepository.findExistingIds(ids);
+        itemRepository.deleteAllByIdInBatch(ids);
+        outbox.deleted(existing);
+        evictFromCache(ids);
+    }
+
+    /*
+        Write-behind. Bulk writes and deletes take whatever the write buffer still holds for their ids, so an older
+        buffered update can't be flushed after them; the bulk update writes it underneath its own fields. If the
+        transaction rolls back, it goes back into the buffer. Processing runs flush the buffer before they plan.
+     */
+
+    private Map<Long, Item> takeBuffered(Collection<Long> ids) {
+        if (writeBuffer == null) return Map.of();
+
+        Map<Long, Item> taken = new HashMap<>();
+        for (Long id : ids) {
+            Item patch = writeBuffer.take(id);
+            if (patch != null) taken.put(id, patch);
+        }
+        if (!taken.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) writeBuffer.restore(taken);
+                }
+            });
+        }
+        return taken;
+    }
+
+    private static Item underneath(Item buffered, Item patch) {
+        if (buffered == null) return patch;
+        Item combined = ItemWriteBuffer.copyOf(buffered);
+        merge(combined, patch);
+        combined.setId(patch.getId());
+        combined.setVersion(patch.getVersion());
+        return combined;
+    }
+
+    // Writer of the flusher: one JDBC batch that merges the patches into the rows, then the UPDATED events with the
+    // rows as written, in one transaction. Ids deleted since they were buffered are skipped. The patches are blind
+    // merges, so rows changed meanwhile take them on top. Once it committed, the rows as written are put into the
+    // cache, which is what a read made while they were pending can't overwrite with its older version.
+    private void writeBuffered(Map<Long, Item> patches) {
+        long startNanos = System.nanoTime();
+        List<Item> written = guard.call(() -> transactions.execute(status -> {
+            Set<Long> missing = itemRepository.updatePatched(patches, now());
+            List<Item> rows = itemRepository.findForProcessing(
+                    patches.keySet().stream().filter(id -> !missing.contains(id)).toList());
+            outbox.append(ItemEvent.Type.UPDATED, rows);
+            return rows;
+        }));
+        putInCache(written);
+        Set<Long> gone = new HashSet<>(patches.keySet());
+        written.forEach(item -> gone.remove(item.getId()));
+        evictFromCache(gone);
+        processingMetrics.writeBehindFlushed(startNanos, patches.size());
     }
 
 
@@ -104,30 +539,508 @@ public class ItemService {
         a CompletableFuture correctly.
      */
 
+    /*
+        Chunked batch engine.
+        The previous version issued one findById() per item, each on its own CompletableFuture delayed by 100 ms,
+        and never saved the new status. For N items that meant N SELECTs, N futures and N sleeps.
+
+        Now the ids are cut into ranges with keyset pagination (WHERE id > lastSeen ORDER BY id), every chunk is loaded with
+        a single IN query and written back with a single JDBC batch. The chunks in flight are bounded by an
+        AdaptiveLimiter shared by all runs (items.processing.limiter.*): it starts at `parallelism` and follows the
+        per-item latency of finished chunks, growing while latency stays flat and backing off once chunks start to
+        queue. The reader blocks on it until a chunk leaves the pipeline, so memory held by pending chunks is
+        bounded. The processed items are collected per run, so two concurrent runs no longer share one list.
+
+        Chunks are claimed from the ProcessingLedger instead of being paged in directly, so a run survives a restart
+        and can be shared between instances.
+
+        Between load and write, chunks go through the ProcessingPipeline: enrichment, e-mail normalization and
+        validation, status transition, each with its own workers and bounded queue (items.processing.stages.*).
+
+        Failures. Every database call goes through the DatabaseGuard, which retries transient failures with jittered
+        exponential backoff and opens a circuit breaker when most calls fail; while it is open the reader stops
+        claiming chunks. A chunk that fails in a stage is retried item by item, and only the items that still fail on
+        their own are dropped into the dead_letter table, from where replayDeadLetters() picks them up again. What
+        can't be isolated (a load that keeps failing, a transient write failure after the last retry) fails the chunk.
+     */
+
+    /*
+        Incremental mode.
+        Every write stamps Item.updatedAt, and processing stamps processedAt through the bulk UPDATE without touching
+        updatedAt. A successful run of either mode records its start time as the watermark in processing_checkpoint;
+        an incremental run then only pages through rows with updatedAt past the watermark, on the
+        (updated_at, id) index. The scan starts watermark-lag earlier, because a write that was still uncommitted
+        when the previous run started carries an older updatedAt than that run's watermark. Rows already processed
+        inside that overlap are filtered out by processedAt >= updatedAt. Without a checkpoint, an incremental run is
+        a full one.
+     */
+    static final String CHECKPOINT = "items";
+
     @Async
     public CompletableFuture<List<Item>> processItemsAsync() {
-        List<Long> itemIds = itemRepository.findAllIds();
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        return processItemsAsync(ProcessingMode.FULL);
+    }
+
+    /**
+     * Processes every item (or the changed ones, see {@link ProcessingMode}) and returns the items that moved to
+     * PROCESSED; items a stage rejected are written with status REJECTED but left out (see
+     * {@link ProcessingListener#onItemsRejected}). A call made while a run of the same mode is in flight doesn't start
+     * another one over the same items: it gets the result of the run in flight, which may have started before the
+     * caller's latest writes.
+     */
+    @Async
+    public CompletableFuture<List<Item>> processItemsAsync(ProcessingMode mode) {
+        return runs.execute(mode, () -> {
+            List<Item> processedItems = Collections.synchronizedList(new ArrayList<>());
+            return processItemsAsync(mode, processedItems::addAll).thenApply(ignored -> processedItems);
+        });
+    }
+
+    /**
+     * Processes like {@link #processItemsAsync(ProcessingMode)} but only keeps the ids of what was processed, rejected
+     * and failed, so the memory of a run grows by 8 bytes per item instead of an entity per item. Concurrent calls of
+     * the same mode share a run as well; they don't attach to a run started by processItemsAsync, whose result
+     * would have to keep every entity.
+     */
+    @Async
+    public CompletableFuture<ProcessingSummary> summarizeItemsAsync(ProcessingMode mode) {
+        return summaries.execute(mode, () -> {
+            ProcessingSummary.Collector collector = new ProcessingSummary.Collector();
+            return processItemsAsync(mode, collector).thenApply(ignored -> collector.summary());
+        });
+    }
+
+    @Async
+    public CompletableFuture<Void> processItemsAsync(ProcessingListener listener) {
+        return processItemsAsync(ProcessingMode.FULL, listener);
+    }
+
+    @Async
+    public CompletableFuture<Void> processItemsAsync(ProcessingMode mode, ProcessingListener listener) {
+        return processItemsAsync(UUID.randomUUID(), mode, listener);
+    }
+
+    /**
+     * Runs {@link #processItems(UUID, ProcessingMode, ProcessingListener)} on the @Async executor. Used by the job
+     * API, which only keeps counters per run instead of the processed entities, and uses its job id as run id.
+     */
+    @Async
+    public CompletableFuture<Void> processItemsAsync(UUID runId, ProcessingMode mode, ProcessingListener listener) {
+        return completion(() -> processItems(runId, mode, listener));
+    }
+
+    /** Joins a run recorded in the ledger, e.g. one left RUNNING by an instance that died. */
+    @Async
+    public CompletableFuture<Void> resumeAsync(ProcessingRun run, ProcessingListener listener) {
+        // Joined twice when the previous resume of the run is still going; that one finishes it.
+        if (!ledger.enter(run.getId())) return CompletableFuture.completedFuture(null);
+        try {
+            return completion(() -> execute(run, listener, System.nanoTime()));
+        } finally {
+            ledger.leave(run.getId());
+        }
+    }
+
+    private interface RunBody {
+        void run() throws InterruptedException;
+    }
+
+    private static CompletableFuture<Void> completion(RunBody body) {
+        try {
+            body.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    public void processItems(ProcessingListener listener) throws InterruptedException {
+        processItems(ProcessingMode.FULL, listener);
+    }
+
+    public void processItems(ProcessingMode mode, ProcessingListener listener) throws InterruptedException {
+        processItems(UUID.randomUUID(), mode, listener);
+    }
+
+    /**
+     * Processes the items selected by {@code mode} chunk by chunk and reports each committed chunk to
+     * {@code listener}. The listener is invoked from the worker threads, possibly concurrently, and only after the
+     * chunk's UPDATE has been executed. A failing chunk is logged, reported through
+     * {@link ProcessingListener#onChunkFailed} and skipped.
+     * <p>
+     * A listener that blocks (e.g. a slow HTTP client) keeps its chunk's slot busy, which in turn stops the reader
+     * from claiming more chunks. A listener that throws aborts the run: no further chunks are started and the
+     * exception is rethrown once the chunks already in flight have finished. A cancelled listener stops the run the
+     * same way, without an exception.
+     * <p>
+     * The run is recorded in the {@link ProcessingLedger} first. This instance doesn't join it from the resumer while
+     * it executes here; other instances may claim some of its chunks, whose items are written but not reported to
+     * this listener. If this JVM dies, the run is resumed from its remaining
+     * chunks by the next instance polling the ledger.
+     * <p>
+     * The watermark only advances when the run got through every chunk; a cancelled run, or one with a failed chunk,
+     * leaves it where it was so the next incremental run sees those items again.
+     */
+    public void processItems(UUID runId, ProcessingMode mode, ProcessingListener listener) throws InterruptedException {
+        long startNanos = System.nanoTime();
+        Instant since = mode == ProcessingMode.INCREMENTAL ? scanStart().orElse(null) : null;
+        // Entered before the run is planned, so the resumer never sees it RUNNING without it being ours.
+        ledger.enter(runId);
+        try {
+            ProcessingRun run;
+            try {
+                if (writeBuffer != null) writeBuffer.flush();
+                run = ledger.plan(runId, mode, since, now());
+            } catch (RuntimeException e) {
+                processingMetrics.runFinished(startNanos, "failure");
+                throw e;
+            }
+            execute(run, listener, startNanos);
+        } finally {
+            ledger.leave(runId);
+        }
+    }
+
+    private void execute(ProcessingRun run, ProcessingListener listener, long startNanos) throws InterruptedException {
+        String outcome = "failure";
+        try {
+            walkChunks(run, listener);
+            outcome = listener.isCancelled() ? "cancelled" : "success";
+            finish(run, listener.isCancelled());
+        } finally {
+            processingMetrics.runFinished(startNanos, outcome);
+        }
+    }
+
+    // Whoever sees the last open chunk closed ends the run. Chunks still claimed by another instance are finished
+    // there; if that instance dies, its leases expire and the run is resumed and ended elsewhere.
+    private void finish(ProcessingRun run, boolean cancelled) {
+        if (cancelled) {
+            ledger.finish(run.getId(), ProcessingRun.State.CANCELLED);
+            return;
+        }
+        if (ledger.hasOpenChunks(run.getId())) return;
+
+        boolean clean = !ledger.hasFailedChunks(run.getId());
+        if (ledger.finish(run.getId(), ProcessingRun.State.COMPLETED) && clean) advanceWatermark(run.getStartedAt());
+    }
+
+    private Optional<Instant> scanStart() {
+        return checkpointRepository.findById(CHECKPOINT)
+                .map(checkpoint -> checkpoint.getWatermark().minus(processingProperties.getWatermarkLag()));
+    }
+
+    private void advanceWatermark(Instant to) {
+        if (checkpointRepository.advance(CHECKPOINT, to) > 0 || checkpointRepository.existsById(CHECKPOINT)) return;
+        try {
+            checkpointRepository.save(new ProcessingCheckpoint(CHECKPOINT, to));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent first run inserted the checkpoint in the meantime.
+            checkpointRepository.advance(CHECKPOINT, to);
+        }
+    }
+
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private void walkChunks(ProcessingRun run, ProcessingListener listener) throws InterruptedException {
+        AtomicReference<RuntimeException> listenerFailure = new AtomicReference<>();
+
+        // Both callbacks run on pipeline workers. Every chunk ends in exactly one of them, which records the outcome
+        // in the ledger and frees its slot. A ledger write that fails aborts the run like a failing listener; the
+        // chunk stays CLAIMED and is processed again once its lease expires.
+        ProcessingPipeline.Sink sink = new ProcessingPipeline.Sink() {
+            @Override
+            public void onBatch(ItemBatch batch) {
+                try {
+                    guard.run(() -> ledger.completed(batch.chunkId(), batch.items().size()));
+                    List<Item> rejected = batch.items().stream().filter(ItemService::isRejected).toList();
+                    List<Item> processed = rejected.isEmpty() ? batch.items()
+                            : batch.items().stream().filter(item -> !isRejected(item)).toList();
+                    processingMetrics.chunkProcessed(batch.startNanos(), processed.size(), rejected.size());
+                    listener.onChunk(processed);
+                    if (!rejected.isEmpty()) listener.onItemsRejected(rejected);
+                } catch (RuntimeException e) {
+                    listenerFailure.compareAndSet(null, e);
+                } finally {
+                    limiter.release(System.nanoTime() - batch.startNanos(), batch.ids().size(), false);
+                }
+            }
+
+            @Override
+            public void onFailure(ItemBatch batch, RuntimeException failure) {
+                try {
+                    guard.run(() -> ledger.failed(batch.chunkId(), failure));
+                    chunkFailed(batch, failure, listener);
+                } catch (RuntimeException e) {
+                    listenerFailure.compareAndSet(null, e);
+                } finally {
+                    // Only failures that mean "the database can't keep up" lower the limit.
+                    limiter.release(System.nanoTime() - batch.startNanos(), 0, DatabaseGuard.isTransient(failure));
+                }
+            }
+
+            @Override
+            public void onItemFailed(ItemBatch batch, String stage, Item item, RuntimeException failure) {
+                try {
+                    deadLetter(run.getId(), stage, item, failure);
+                    listener.onItemFailed(item, failure);
+                } catch (RuntimeException e) {
+                    listenerFailure.compareAndSet(null, e);
+                }
+            }
+        };
+
+        ProcessingPipeline.Run pipelineRun = pipeline.start(executor, ItemProcessor.named("write", this::writeProcessed), writerParallelism(), sink);
+        try {
+            while (!listener.isCancelled()) {
+                limiter.acquire();
+                if (listenerFailure.get() != null || listener.isCancelled()) {
+                    limiter.cancel();
+                    break;
+                }
+                guard.awaitClosed();
+                Optional<ProcessingChunk> claimed;
+                try {
+                    claimed = guard.call(() -> ledger.claim(run.getId()));
+                } catch (RuntimeException e) {
+                    limiter.cancel();
+                    throw e;
+                }
+                if (claimed.isEmpty()) {
+                    limiter.cancel();
+                    break;
+                }
 
-        itemIds.forEach(id -> {
-            CompletableFuture<Void> currentFuture = CompletableFuture.runAsync(() -> {
+                ProcessingChunk chunk = claimed.get();
+                long chunkStart = System.nanoTime();
+                processingMetrics.chunkStarted();
+                List<Long> ids = List.of();
+                List<Item> items;
                 try {
-                    Item item = itemRepository.findById(id)
-                            .orElseThrow(() -> new NotFoundException("Item with given id can't be found."));
-
-                    item.setStatus("PROCESSED");
-                    processedCount.incrementAndGet();
-                    processedItems.add(item);
-                } catch (Exception e) {
-                    System.err.println("Error: " + e.getMessage());
+                    ids = guard.call(() -> ledger.idsOf(run, chunk));
+                    items = load(ids);
+                } catch (RuntimeException e) {
+                    sink.onFailure(new ItemBatch(chunk.getId(), ids, List.of(), chunkStart), e);
+                    continue;
                 }
-            }, CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS, executor));
-            futures.add(currentFuture);
+                pipelineRun.submit(new ItemBatch(chunk.getId(), ids, items, chunkStart));
+            }
+        } finally {
+            // Wait for the chunks still in the pipeline, so the caller sees every result before this method returns.
+            pipelineRun.close();
+        }
+
+        if (listenerFailure.get() != null) {
+            // Aborted on purpose (e.g. the client went away): no other instance should pick this run up again.
+            ledger.finish(run.getId(), ProcessingRun.State.FAILED);
+            throw listenerFailure.get();
+        }
+    }
+
+    // Rejected items are written like the others (their status, processedAt, the PROCESSED event), but a run reports
+    // them apart from the processed ones.
+    private static boolean isRejected(Item item) {
+        return StatusTransitionProcessor.REJECTED.equals(item.getStatus());
+    }
+
+    // Ids deleted since they were listed are simply absent from the result, so they are skipped. Loaded detached
+    // (see ItemRepositoryCustom.findForProcessing): the write goes through JDBC, so managed entities would only cost
+    // memory.
+    private List<Item> load(List<Long> ids) {
+        return ids.isEmpty() ? List.of() : guard.call(() -> itemRepository.findForProcessing(ids));
+    }
+
+    private void deadLetter(UUID runId, String stage, Item item, RuntimeException failure) {
+        log.warn("Item {} failed in stage {} and was moved to the dead-letter table", item.getId(), stage, failure);
+        processingMetrics.itemDeadLettered(stage);
+        guard.run(() -> {
+            DeadLetter letter = deadLetterRepository.findById(item.getId())
+                    .orElseGet(() -> new DeadLetter(item.getId(), now()));
+            letter.failed(runId, stage, failure, now());
+            deadLetterRepository.save(letter);
         });
+    }
 
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenApply(voidResult -> processedItems)
-                .exceptionally(ex -> Collections.emptyList());
+    private void chunkFailed(ItemBatch batch, RuntimeException failure, ProcessingListener listener) {
+        log.error("Processing of chunk {} ({} items) failed", batch.chunkId(), batch.ids().size(), failure);
+        processingMetrics.chunkFailed(batch.ids().size(), failure);
+        listener.onChunkFailed(batch.ids(), failure);
+    }
+
+    /**
+     * Number of chunks allowed in flight without the adaptive limiter, and where the limiter starts. With platform
+     * threads this is the configured pool size. With virtual threads the work is I/O bound on JDBC, so the useful
+     * limit is the number of pooled connections; going above it would only make the virtual threads queue inside
+     * Hikari.
+     */
+    private int parallelism() {
+        if (processingProperties.getExecutionMode() == ExecutionMode.VIRTUAL
+                && dataSource instanceof HikariDataSource hikari) {
+            return hikari.getMaximumPoolSize();
+        }
+        return processingProperties.getParallelism();
+    }
+
+    private AdaptiveLimiter newLimiter() {
+        ProcessingProperties.Limiter settings = processingProperties.getLimiter();
+        if (!settings.isEnabled()) return AdaptiveLimiter.fixed(parallelism());
+
+        int maxLimit = settings.getMaxLimit() > 0 ? settings.getMaxLimit() : 2 * connections();
+        return new AdaptiveLimiter(parallelism(), settings.getMinLimit(), Math.max(maxLimit, parallelism()),
+                settings.getTolerance());
+    }
+
+    // Writers hold a connection each, so there is no point in more of them than Hikari hands out; the limiter decides
+    // how many of them actually get work.
+    private int writerParallelism() {
+        if (!processingProperties.getLimiter().isEnabled()) return parallelism();
+        return Math.min(limiter.maxLimit(), connections());
+    }
+
+    // Connections the engine can use at once; without Hikari the cores stand in for them.
+    private int connections() {
+        return dataSource instanceof HikariDataSource hikari
+                ? hikari.getMaximumPoolSize()
+                : Runtime.getRuntime().availableProcessors();
+    }
+
+    /** Number of items a full run is going to visit; used for progress reporting. */
+    public long count() {
+        return itemRepository.count();
+    }
+
+    /** Number of items a run in {@code mode} would visit if it started now. */
+    public long count(ProcessingMode mode) {
+        if (mode == ProcessingMode.FULL) return count();
+        return scanStart().map(itemRepository::countChangedSince).orElseGet(this::count);
     }
-}
 
+    /** Dead letters, oldest failure first. */
+    public List<DeadLetter> findDeadLetters(int limit) {
+        return deadLetterRepository.findAllByOrderByLastFailedAtAsc(Limit.of(limit));
+    }
+
+    /**
+     * Runs dead-lettered items through the pipeline again, outside of any ledger run and chunk by chunk. Items that
+     * get written now leave the dead-letter table, as do items that no longer exist; items that fail again stay, with
+     * their failure count increased. Without ids, the chunk-size oldest dead letters are replayed. A failure that
+     * can't be pinned on single items (e.g. the database is down) is thrown and leaves the table as it was.
+     */
+    public DeadLetterReplay replayDeadLetters(List<Long> itemIds) throws InterruptedException {
+        List<Long> ids = itemIds == null || itemIds.isEmpty()
+                ? findDeadLetters(processingProperties.getChunkSize()).stream().map(DeadLetter::getItemId).toList()
+                : List.copyOf(itemIds);
+        List<Item> written = Collections.synchronizedList(new ArrayList<>());
+        Set<Long> failed = ConcurrentHashMap.newKeySet();
+        AtomicReference<RuntimeException> chunkFailure = new AtomicReference<>();
+
+        ProcessingPipeline.Sink sink = new ProcessingPipeline.Sink() {
+            @Override
+            public void onBatch(ItemBatch batch) {
+                written.addAll(batch.items());
+            }
+
+            @Override
+            public void onFailure(ItemBatch batch, RuntimeException failure) {
+                chunkFailure.compareAndSet(null, failure);
+            }
+
+            @Override
+            public void onItemFailed(ItemBatch batch, String stage, Item item, RuntimeException failure) {
+                failed.add(item.getId());
+                try {
+                    deadLetter(null, stage, item, failure);
+                } catch (RuntimeException e) {
+                    chunkFailure.compareAndSet(null, e);
+                }
+            }
+        };
+
+        List<Long> missing = new ArrayList<>();
+        ProcessingPipeline.Run pipelineRun = pipeline.start(executor, ItemProcessor.named("write", this::writeProcessed), writerParallelism(), sink);
+        try {
+            for (int from = 0; from < ids.size() && chunkFailure.get() == null; from += processingProperties.getChunkSize()) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + processingProperties.getChunkSize()));
+                List<Item> items = load(chunk);
+                Set<Long> found = new HashSet<>();
+                items.forEach(item -> found.add(item.getId()));
+                chunk.stream().filter(id -> !found.contains(id)).forEach(missing::add);
+                pipelineRun.submit(new ItemBatch(null, chunk, items, System.nanoTime()));
+            }
+        } finally {
+            pipelineRun.close();
+        }
+        if (chunkFailure.get() != null) throw chunkFailure.get();
+
+        // Stale writes (the item changed meanwhile) are neither written nor failed; they stay for the next replay.
+        List<Long> replayed = written.stream().map(Item::getId).toList();
+        List<Long> resolved = new ArrayList<>(replayed);
+        resolved.addAll(missing);
+        guard.run(() -> deadLetterRepository.deleteAllByIdInBatch(resolved));
+        return new DeadLetterReplay(replayed, List.copyOf(failed), missing);
+    }
+
+    /**
+     * Last pipeline stage: writes the chunk back with one JDBC batch, plus a PROCESSED event per written item in the
+     * same transaction, and returns the items that were written. An item changed by someone else since it was loaded
+     * keeps that change; its updatedAt moved, so the next incremental run picks it up again.
+     */
+    private List<Item> writeProcessed(List<Item> items) {
+        if (items.isEmpty()) return items;
+
+        Instant processedAt = now();
+        Set<Long> stale = guard.call(() -> transactions.execute(status -> {
+            Set<Long> rejected = itemRepository.updateProcessed(items, processedAt);
+            outbox.append(ItemEvent.Type.PROCESSED, items.stream().filter(item -> !rejected.contains(item.getId())).toList());
+            return rejected;
+        }));
+        // Evicted rather than refreshed: a full run touches every row, and putting them all would push the hot set out.
+        evictFromCache(items.stream().map(Item::getId).toList());
+        if (!stale.isEmpty()) log.debug("Items {} changed while being processed, left for the next run", stale);
+
+        // Mirror the UPDATE (processedAt and version bump) so the returned items match the rows.
+        List<Item> written = new ArrayList<>(items.size());
+        for (Item item : items) {
+            if (stale.contains(item.getId())) continue;
+            item.setProcessedAt(processedAt);
+            if (item.getVersion() != null) item.setVersion(item.getVersion() + 1);
+            written.add(item);
+        }
+        return written;
+    }
+
+    private Item cached(Long id) {
+        Cache cache = cacheManager.getCache(ITEMS_CACHE);
+        Cache.ValueWrapper hit = cache == null ? null : cache.get(id);
+        return hit == null ? null : (Item) hit.get();
+    }
+
+    private void putInCache(Collection<Item> items) {
+        Cache cache = cacheManager.getCache(ITEMS_CACHE);
+        if (cache == null) return;
+        items.forEach(item -> cache.put(item.getId(), item));
+    }
+
+    private void evictFromCache(Collection<Long> ids) {
+        Cache cache = cacheManager.getCache(ITEMS_CACHE);
+        if (cache == null) return;
+        ids.forEach(cache::evict);
+    }
+
+    /** Hit / miss / eviction counters of the item cache, or empty when the cache isn't backed by Caffeine. */
+    public Optional<ItemCacheStats> cacheStats() {
+        Cache itemCache = cacheManager.getCache(ITEMS_CACHE);
+        if (itemCache instanceof TransactionAwareCacheDecorator decorator) itemCache = decorator.getTargetCache();
+        if (!(itemCache instanceof CaffeineCache cache)) return Optional.empty();
+
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = cache.getNativeCache();
+        CacheStats stats = nativeCache.stats();
+        return Optional.of(new ItemCacheStats(nativeCache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount()));
+    }
+}
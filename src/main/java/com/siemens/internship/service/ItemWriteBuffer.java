@@ -0,0 +1,322 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * In-memory buffer of item updates that have been accepted but not written yet, behind the write-behind mode of
+ * ItemService.updateItem (items.write-behind.*).
+ * <p>
+ * Updates are kept as patches keyed by id, spread over independently locked stripes. A second update of an id that
+ * is still buffered is merged into its patch field by field, the later value winning, so an id costs one row write
+ * per flush however often it was updated. Next to the patch the buffer keeps the item as the client last saw it, so
+ * updating a buffered id again needs no read either. A single flusher thread hands the patches to the writer in
+ * batches of {@code maxBatch} ids, every {@code flushInterval} or as soon as that many ids are waiting.
+ * <p>
+ * Patches being written stay visible to {@link #pending} until the writer returns, so a reader never falls into the
+ * gap between the buffer and the committed row. A batch the writer fails is put back under any newer patch of the
+ * same ids and retried with the next flush. Flushes are serialized: at most one batch is in flight.
+ */
+@Slf4j
+public class ItemWriteBuffer {
+
+    private static final class Entry {
+        final Item patch = new Item();
+        Item view;
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<Long, Entry> entries = new HashMap<>();
+    }
+
+    private final Stripe[] stripes;
+    private final int maxBatch;
+    private final int maxPending;
+    private final BiConsumer<Item, Item> merge;
+    private final Consumer<Map<Long, Item>> writer;
+    private final AtomicInteger size = new AtomicInteger();
+    private final ConcurrentMap<Long, Item> flushing = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+    private volatile boolean closed;
+
+    /**
+     * @param merge  applies the non-null fields of its second argument to its first, as ItemService.updateItem does
+     * @param writer writes a batch of patches and returns only once they are committed; throwing keeps them buffered
+     */
+    public ItemWriteBuffer(int stripes, int maxBatch, int maxPending, Duration flushInterval,
+                           BiConsumer<Item, Item> merge, Consumer<Map<Long, Item>> writer) {
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) this.stripes[i] = new Stripe();
+        this.maxBatch = maxBatch;
+        this.maxPending = maxPending;
+        this.merge = merge;
+        this.writer = writer;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "item-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /** The item as returned by the last update buffered for {@code id}, or null if none is buffered. */
+    public Item view(Long id) {
+        Stripe stripe = stripeOf(id);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(id);
+            return entry == null || entry.view == null ? null : copyOf(entry.view);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Buffers {@code patch} for {@code id}, merged over the patch already waiting for it, and returns the item with
+     * every buffered update applied. {@code current} is the item the first update of the id applies to; it is
+     * ignored while the id has a view of its own.
+     * <p>
+     * A full buffer makes the caller run a flush before it adds a new id, so producers are slowed down to the pace
+     * of the database rather than writing past the buffer. Returns null, and buffers nothing, when the buffer is
+     * closed, or still full because that flush failed; the caller then writes the update itself.
+     */
+    public Item offer(Long id, Item patch, Item current) {
+        for (boolean flushed = false; !closed; flushed = true) {
+            Item view = tryOffer(id, patch, current);
+            if (view != null) {
+                if (size.get() >= maxBatch && flushRequested.compareAndSet(false, true)) {
+                    flusher.execute(this::flushQuietly);
+                }
+                return view;
+            }
+            if (flushed) return null;
+            flushQuietly();
+        }
+        return null;
+    }
+
+    // The offer under the stripe lock; null if the id would be a new one in a full buffer.
+    private Item tryOffer(Long id, Item patch, Item current) {
+        Stripe stripe = stripeOf(id);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(id);
+            if (entry == null) {
+                if (size.get() >= maxPending) return null;
+                entry = new Entry();
+                stripe.entries.put(id, entry);
+                size.incrementAndGet();
+            }
+            if (entry.view == null) {
+                entry.view = copyOf(current);
+                merge.accept(entry.view, entry.patch);
+            }
+            merge.accept(entry.patch, patch);
+            merge.accept(entry.view, patch);
+            return copyOf(entry.view);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Everything accepted for {@code id} and not committed yet, as one patch, or null if there is nothing. Its
+     * fields go over the row as read from the database; take the snapshot before reading the row, so a flush
+     * committing in between can only make the row newer, never the snapshot staler.
+     */
+    public Item pending(Long id) {
+        Item buffered;
+        Stripe stripe = stripeOf(id);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(id);
+            buffered = entry == null ? null : copyOf(entry.patch);
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        // Looked up second: a patch that left the stripe after the check above is in here until it has committed.
+        Item inFlight = flushing.get(id);
+        if (inFlight == null) return buffered;
+        Item patch = copyOf(inFlight);
+        if (buffered != null) merge.accept(patch, buffered);
+        return patch;
+    }
+
+    /**
+     * Removes and returns the buffered patch of {@code id}, or null, for a caller that is about to write or delete
+     * the id itself. If a flush is writing an older patch of the id, waits for it to commit first, so the caller's
+     * write lands after it.
+     */
+    public Item take(Long id) {
+        Item patch = remove(id);
+        if (!flushing.containsKey(id)) return patch;
+
+        flushLock.lock();
+        flushLock.unlock();
+        // A batch that failed was put back into the buffer; it is older than anything taken above.
+        Item restored = remove(id);
+        if (restored == null) return patch;
+        if (patch != null) merge.accept(restored, patch);
+        return restored;
+    }
+
+    /** Puts patches back that could not be written, under anything buffered for the same ids since. */
+    public void restore(Map<Long, Item> patches) {
+        patches.forEach((id, patch) -> {
+            Stripe stripe = stripeOf(id);
+            stripe.lock.lock();
+            try {
+                Entry entry = stripe.entries.get(id);
+                Entry restored = new Entry();
+                merge.accept(restored.patch, patch);
+                if (entry == null) {
+                    size.incrementAndGet();
+                } else {
+                    merge.accept(restored.patch, entry.patch);
+                    restored.view = entry.view;
+                }
+                stripe.entries.put(id, restored);
+            } finally {
+                stripe.lock.unlock();
+            }
+        });
+    }
+
+    /** Number of ids waiting to be written, without the batch being written. */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Writes everything buffered so far on the caller's thread and returns once it is committed; updates arriving
+     * meanwhile are left to the next flush. A failure of the writer is rethrown, with the failed patches back in
+     * the buffer.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            for (int remaining = size.get(); remaining > 0; ) {
+                int written = writeBatch();
+                if (written == 0) break;
+                remaining -= written;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting updates and writes what is buffered, retrying failed batches until {@code timeout} has
+     * passed. Returns the number of ids that could not be written; those updates are lost.
+     */
+    public int drain(Duration timeout) {
+        closed = true;
+        flusher.shutdown();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            flusher.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            while (size.get() > 0 && System.nanoTime() < deadline) {
+                try {
+                    flush();
+                } catch (RuntimeException e) {
+                    log.warn("Draining the write-behind buffer failed, {} ids left: {}", size.get(), e.toString());
+                    Thread.sleep(Math.min(100, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) + 1));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return size.get();
+    }
+
+    /** Full copy of an item, version and timestamps included. */
+    static Item copyOf(Item item) {
+        Item copy = new Item(item.getId(), item.getName(), item.getDescription(), item.getStatus(), item.getEmail());
+        copy.setVersion(item.getVersion());
+        copy.setUpdatedAt(item.getUpdatedAt());
+        copy.setProcessedAt(item.getProcessedAt());
+        return copy;
+    }
+
+    private void flushQuietly() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Write-behind flush failed, {} ids kept for the next one: {}", size.get(), e.toString());
+        }
+    }
+
+    // Moves up to maxBatch patches from the stripes to the in-flight map and writes them; returns how many. Called
+    // with flushLock held.
+    private int writeBatch() {
+        Map<Long, Item> batch = new LinkedHashMap<>();
+        for (Stripe stripe : stripes) {
+            if (batch.size() >= maxBatch) break;
+            stripe.lock.lock();
+            try {
+                List<Long> ids = new ArrayList<>(stripe.entries.keySet());
+                for (Long id : ids) {
+                    if (batch.size() >= maxBatch) break;
+                    Item patch = stripe.entries.remove(id).patch;
+                    // In flushing before the stripe is unlocked, so pending() finds it in one place or the other.
+                    flushing.put(id, patch);
+                    batch.put(id, patch);
+                    size.decrementAndGet();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        if (batch.isEmpty()) return 0;
+
+        try {
+            writer.accept(batch);
+        } catch (RuntimeException e) {
+            restore(batch);
+            throw e;
+        } finally {
+            batch.keySet().forEach(flushing::remove);
+        }
+        return batch.size();
+    }
+
+    private Item remove(Long id) {
+        Stripe stripe = stripeOf(id);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.remove(id);
+            if (entry == null) return null;
+            size.decrementAndGet();
+            return entry.patch;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Stripe stripeOf(Long id) {
+        return stripes[Math.floorMod(Long.hashCode(id), stripes.length)];
+    }
+}
@@ -0,0 +1,112 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one processing run started through the job API. Every job counts its own progress, so concurrent runs
+ * never see each other's results, and only counters are kept, never the processed entities.
+ */
+public class ProcessingJob implements ProcessingListener {
+
+    public enum State { RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    @Getter
+    private final UUID id;
+    @Getter
+    private final Instant startedAt = Instant.now();
+    private final long total;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong rejected  = new AtomicLong();
+    private final AtomicLong failed    = new AtomicLong();
+
+    private volatile boolean cancelRequested;
+    @Getter
+    private volatile State state = State.RUNNING;
+    @Getter
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public ProcessingJob(long total) {
+        this(UUID.randomUUID(), total);
+    }
+
+    /** A job for a run that already exists in the ledger, under the run's id. */
+    public ProcessingJob(UUID id, long total) {
+        this.id = id;
+        this.total = total;
+    }
+
+    @Override
+    public void onChunk(List<Item> items) {
+        processed.addAndGet(items.size());
+    }
+
+    @Override
+    public void onItemsRejected(List<Item> items) {
+        rejected.addAndGet(items.size());
+    }
+
+    @Override
+    public void onChunkFailed(List<Long> ids, RuntimeException cause) {
+        failed.addAndGet(ids.size());
+    }
+
+    @Override
+    public void onItemFailed(Item item, RuntimeException cause) {
+        failed.incrementAndGet();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    /** Asks the run to stop; chunks already in flight are still completed. Returns false if the job already ended. */
+    public boolean cancel() {
+        if (state != State.RUNNING) return false;
+        cancelRequested = true;
+        return true;
+    }
+
+    synchronized void finish(Throwable failure) {
+        if (state != State.RUNNING) return;
+        finishedAt = Instant.now();
+        if (failure != null) {
+            state = State.FAILED;
+            error = failure.getMessage();
+        } else {
+            state = cancelRequested ? State.CANCELLED : State.COMPLETED;
+        }
+    }
+
+    public Status status() {
+        long done    = processed.get();
+        long refused = rejected.get();
+        long errors  = failed.get();
+        Instant end  = finishedAt != null ? finishedAt : Instant.now();
+        double secs  = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+        double rate  = (done + refused) / secs;
+
+        Long etaSeconds = null;
+        if (state == State.RUNNING && rate > 0) {
+            etaSeconds = (long) Math.ceil(Math.max(total - done - refused - errors, 0) / rate);
+        }
+        return new Status(id, state, total, done, refused, errors, rate, etaSeconds, startedAt, finishedAt, error);
+    }
+
+    /**
+     * Snapshot returned by the job endpoints. {@code total} is the row count when the job started, so items inserted
+     * during the run may push {@code processed} past it. {@code rejected} items were written with status REJECTED
+     * rather than PROCESSED. {@code etaSeconds} is null once the job has ended.
+     */
+    public record Status(UUID id, State state, long total, long processed, long rejected, long failed,
+                         double itemsPerSecond, Long etaSeconds, Instant startedAt, Instant finishedAt, String error) {
+    }
+}
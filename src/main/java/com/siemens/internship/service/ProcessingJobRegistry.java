@@ -0,0 +1,85 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.ProcessingProperties;
+import com.siemens.internship.model.ProcessingRun;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps track of the processing jobs started through the job API. Jobs run on the @Async executor, so the request
+ * that starts one returns immediately. Finished jobs are kept for {@code items.processing.job-retention} so their
+ * final status can still be polled, and are dropped the next time a job is started.
+ * <p>
+ * The job id is also the id of the run in the {@link ProcessingLedger}. Runs this instance joins through
+ * {@link #resumeRuns()} show up as jobs as well, counting only the chunks processed here.
+ */
+@Slf4j
+@Component
+public class ProcessingJobRegistry {
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ProcessingProperties processingProperties;
+    @Autowired
+    private ProcessingLedger ledger;
+
+    private final Map<UUID, ProcessingJob> jobs = new ConcurrentHashMap<>();
+
+    public ProcessingJob start(ProcessingMode mode) {
+        purgeExpired();
+
+        ProcessingJob job = new ProcessingJob(itemService.count(mode));
+        jobs.put(job.getId(), job);
+        run(job, () -> itemService.processItemsAsync(job.getId(), mode, job));
+        return job;
+    }
+
+    /**
+     * Joins every RUNNING ledger run that has chunks left to claim and isn't already executing here, whether it was
+     * started as a job or by one of the /process endpoints (see ProcessingLedger.resumable). On startup this resumes
+     * the runs of a JVM that died; with several instances it spreads a run over all of them.
+     */
+    @Scheduled(initialDelayString = "${items.processing.resume-interval:PT30S}",
+            fixedDelayString = "${items.processing.resume-interval:PT30S}")
+    public void resumeRuns() {
+        for (ProcessingRun run : ledger.resumable()) {
+            // A resume of it that is queued on the executor but hasn't entered the ledger yet.
+            ProcessingJob current = jobs.get(run.getId());
+            if (current != null && current.getState() == ProcessingJob.State.RUNNING) continue;
+
+            log.info("Joining processing run {} ({}, started {})", run.getId(), run.getMode(), run.getStartedAt());
+            ProcessingJob job = new ProcessingJob(run.getId(), 0);
+            jobs.put(job.getId(), job);
+            run(job, () -> itemService.resumeAsync(run, job));
+        }
+    }
+
+    private static void run(ProcessingJob job, Supplier<CompletableFuture<Void>> start) {
+        try {
+            start.get().whenComplete((ignored, failure) -> job.finish(failure));
+        } catch (RuntimeException e) {
+            // The @Async executor refused the task; record that instead of leaving the job RUNNING forever.
+            job.finish(e);
+        }
+    }
+
+    public Optional<ProcessingJob> find(UUID id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minus(processingProperties.getJobRetention());
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+}
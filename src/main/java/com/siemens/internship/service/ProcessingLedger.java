@@ -0,0 +1,229 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.ProcessingProperties;
+import com.siemens.internship.model.ProcessingChunk;
+import com.siemens.internship.model.ProcessingRun;
+import com.siemens.internship.repository.ItemChange;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingChunkRepository;
+import com.siemens.internship.repository.ProcessingRunRepository;
+import jakarta.transaction.Transactional;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Durable bookkeeping of processing runs (processing_run / processing_chunk). A run is split into id ranges when it
+ * starts; workers of any instance claim ranges with a lease and record the outcome of each one. Because the state
+ * lives in the database, a run survives a crash of the JVM that started it and several instances can work on the
+ * same run against a shared database.
+ * <p>
+ * Processing is at-least-once: a chunk written but not yet marked DONE when its owner dies is processed again by the
+ * next owner, which is harmless as processing is idempotent. While its owner lives, a chunk's lease is renewed until
+ * it is released, however long the chunk takes (a slow streaming client, retries behind an open circuit breaker).
+ */
+@Slf4j
+@Component
+public class ProcessingLedger {
+    // Claimable chunks read per attempt; a claim that loses the race moves on to the next candidate.
+    static final int CLAIM_CANDIDATES = 8;
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final EnumSet<ProcessingChunk.State> OPEN =
+            EnumSet.of(ProcessingChunk.State.PENDING, ProcessingChunk.State.CLAIMED);
+
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ProcessingRunRepository runRepository;
+    @Autowired
+    private ProcessingChunkRepository chunkRepository;
+    @Autowired
+    private ProcessingProperties processingProperties;
+
+    /** Written to processing_chunk.owner; unique per JVM, so a restarted instance never mistakes old leases for its own. */
+    @Getter
+    private final String owner = ProcessHandle.current().pid() + "@" + hostName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+
+    // Runs being executed in this JVM, whatever started them: /process, /process/summary, /process/stream, a job or a
+    // resume. Their reader claims their chunks as fast as its listener takes them, so this instance never joins them.
+    private final Set<UUID> executing = ConcurrentHashMap.newKeySet();
+
+    // Chunks claimed by this JVM and not released yet, whose leases renewLeases() keeps extending.
+    private final Set<Long> held = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Records a new run and all of its chunks in one transaction, so a crash while planning leaves nothing behind.
+     * A FULL run is cut into ranges of chunk-size consecutive ids, from a single streamed scan of the ids. An INCREMENTAL run ({@code since} not null) is cut
+     * into ranges of chunk-size changed ids; only the changed ids are held in memory meanwhile.
+     */
+    @Transactional
+    public ProcessingRun plan(UUID id, ProcessingMode mode, Instant since, Instant startedAt) {
+        ProcessingRun run = new ProcessingRun(id, mode, since, startedAt);
+        List<ProcessingChunk> chunks = since == null ? planAll(id) : planChanged(id, since);
+        run.setChunks(chunks.size());
+        runRepository.save(run);
+        chunkRepository.saveAll(chunks);
+        return run;
+    }
+
+    // One streamed scan of the primary key; only the bounds of the current range are kept while it runs.
+    private List<ProcessingChunk> planAll(UUID runId) {
+        int chunkSize = processingProperties.getChunkSize();
+        List<ProcessingChunk> chunks = new ArrayList<>();
+        try (Stream<Long> ids = itemRepository.streamIds()) {
+            Iterator<Long> iterator = ids.iterator();
+            long first = 0;
+            long last = 0;
+            int count = 0;
+            while (iterator.hasNext()) {
+                last = iterator.next();
+                if (count++ == 0) first = last;
+                if (count == chunkSize) {
+                    chunks.add(new ProcessingChunk(runId, first, last));
+                    count = 0;
+                }
+            }
+            if (count > 0) chunks.add(new ProcessingChunk(runId, first, last));
+        }
+        return chunks;
+    }
+
+    private List<ProcessingChunk> planChanged(UUID runId, Instant since) {
+        int chunkSize = processingProperties.getChunkSize();
+        long[] ids = new long[chunkSize];
+        int count = 0;
+        ItemChange last = new ItemChange(Long.MIN_VALUE, since);
+        List<ItemChange> page;
+        do {
+            page = itemRepository.findChangedAfter(last.updatedAt(), last.id(), PageRequest.ofSize(chunkSize));
+            if (page.isEmpty()) break;
+            if (count + page.size() > ids.length) ids = Arrays.copyOf(ids, Math.max(ids.length * 2, count + page.size()));
+            for (ItemChange change : page) ids[count++] = change.id();
+            last = page.get(page.size() - 1);
+        } while (page.size() == chunkSize);
+
+        // The scan runs in updatedAt order; chunks are id ranges, so the ids are sorted before they are cut.
+        Arrays.sort(ids, 0, count);
+        List<ProcessingChunk> chunks = new ArrayList<>();
+        for (int from = 0; from < count; from += chunkSize) {
+            int to = Math.min(count, from + chunkSize) - 1;
+            chunks.add(new ProcessingChunk(runId, ids[from], ids[to]));
+        }
+        return chunks;
+    }
+
+    /** Claims the next free chunk of a RUNNING run for this instance, or returns empty when none is left. */
+    public Optional<ProcessingChunk> claim(UUID runId) {
+        Instant now = Instant.now();
+        Instant leaseUntil = now.plus(processingProperties.getLease());
+        for (Long id : chunkRepository.findClaimable(runId, now, PageRequest.ofSize(CLAIM_CANDIDATES))) {
+            if (chunkRepository.claim(id, owner, leaseUntil, now) == 1) {
+                held.add(id);
+                return chunkRepository.findById(id);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Extends the leases of the chunks this instance is working on. A lease that can't be renewed (the database was
+     * unreachable for longer than the lease) may be claimed elsewhere; the release then tells this owner it lost it.
+     */
+    @Scheduled(initialDelayString = "${items.processing.lease-renewal:PT1M}",
+            fixedDelayString = "${items.processing.lease-renewal:PT1M}")
+    public void renewLeases() {
+        if (held.isEmpty()) return;
+        List<Long> ids = List.copyOf(held);
+        try {
+            int renewed = chunkRepository.renew(ids, owner, Instant.now().plus(processingProperties.getLease()));
+            log.debug("Renewed the leases of {} of {} chunks in progress", renewed, ids.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not renew the leases of {} chunks in progress", ids.size(), e);
+        }
+    }
+
+    /** Ids to process for a claimed chunk, read when the chunk is about to be loaded. */
+    public List<Long> idsOf(ProcessingRun run, ProcessingChunk chunk) {
+        if (run.getSince() == null) return itemRepository.findIdsBetween(chunk.getFirstId(), chunk.getLastId());
+        return itemRepository.findChangedIdsBetween(chunk.getFirstId(), chunk.getLastId(), run.getSince());
+    }
+
+    // Both releases stop the renewal first: a chunk whose release fails stays CLAIMED until its lease runs out.
+    public void completed(Long chunkId, int processed) {
+        held.remove(chunkId);
+        if (chunkRepository.release(chunkId, owner, ProcessingChunk.State.DONE, processed, null) == 0) {
+            log.warn("Lease on chunk {} was lost before it completed; the new owner's result counts", chunkId);
+        }
+    }
+
+    public void failed(Long chunkId, RuntimeException cause) {
+        String error = String.valueOf(cause.getMessage());
+        if (error.length() > MAX_ERROR_LENGTH) error = error.substring(0, MAX_ERROR_LENGTH);
+        held.remove(chunkId);
+        chunkRepository.release(chunkId, owner, ProcessingChunk.State.FAILED, 0, error);
+    }
+
+    /** Whether some chunks are still PENDING or CLAIMED, by this or another instance. */
+    public boolean hasOpenChunks(UUID runId) {
+        return chunkRepository.countByRunIdAndStateIn(runId, OPEN) > 0;
+    }
+
+    public boolean hasFailedChunks(UUID runId) {
+        return chunkRepository.countByRunIdAndStateIn(runId, EnumSet.of(ProcessingChunk.State.FAILED)) > 0;
+    }
+
+    /** Ends a RUNNING run; returns false if it had already been ended, e.g. by another instance. */
+    public boolean finish(UUID runId, ProcessingRun.State state) {
+        return runRepository.finish(runId, state, Instant.now()) == 1;
+    }
+
+    /**
+     * Marks a run as executing in this JVM until {@link #leave}; false if it already is, in which case the caller must
+     * not execute it a second time.
+     */
+    public boolean enter(UUID runId) {
+        return executing.add(runId);
+    }
+
+    public void leave(UUID runId) {
+        executing.remove(runId);
+    }
+
+    /**
+     * RUNNING runs this instance could help with: not executing here already, and some chunk is free to claim (never
+     * claimed, or its owner's lease expired), or none is open anymore and the run only waits to be finished.
+     */
+    public List<ProcessingRun> resumable() {
+        Instant now = Instant.now();
+        return runRepository.findByState(ProcessingRun.State.RUNNING).stream()
+                .filter(run -> !executing.contains(run.getId()))
+                .filter(run -> !chunkRepository.findClaimable(run.getId(), now, PageRequest.ofSize(1)).isEmpty()
+                        || !hasOpenChunks(run.getId()))
+                .toList();
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+
+import java.util.List;
+
+/**
+ * Receives the outcome of a processing run chunk by chunk. Callbacks come from the worker threads and may run
+ * concurrently, so implementations have to be thread-safe.
+ */
+@FunctionalInterface
+public interface ProcessingListener {
+
+    /**
+     * Called once a chunk has been written, with the items that moved to PROCESSED; they already carry their new
+     * status. Items of the chunk that a stage rejected go to {@link #onItemsRejected} instead.
+     */
+    void onChunk(List<Item> items);
+
+    /**
+     * Called once a chunk has been written, with its items that a stage marked REJECTED (e.g. an invalid e-mail).
+     * They are written with that status and stamped as processed, but they are not counted as processed.
+     */
+    default void onItemsRejected(List<Item> items) {
+    }
+
+    /** Called when a chunk could not be processed; none of its items were updated. */
+    default void onChunkFailed(List<Long> ids, RuntimeException cause) {
+    }
+
+    /**
+     * Called when one item failed on its own and was moved to the dead-letter table; the rest of its chunk is still
+     * written and reported through {@link #onChunk}.
+     */
+    default void onItemFailed(Item item, RuntimeException cause) {
+    }
+
+    /** Polled before every new chunk is paged in; returning true stops the run once in-flight chunks finish. */
+    default boolean isCancelled() {
+        return false;
+    }
+}
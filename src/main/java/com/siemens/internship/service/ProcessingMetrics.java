@@ -0,0 +1,136 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.service.resilience.AdaptiveLimiter;
+import com.siemens.internship.service.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters of the processing engine, kept out of ItemService so the engine only reports events:
+ * <ul>
+ *     <li>{@code items.processing.run} - duration of a whole run, tagged with its outcome</li>
+ *     <li>{@code items.processing.chunk} - latency of one chunk (load, pipeline stages, write) with a percentile
+ *     histogram; every item of a chunk is committed at the same time, so this is also the per-item latency</li>
+ *     <li>{@code items.processing.stage} - time spent in each pipeline stage, to see which one needs more workers</li>
+ *     <li>{@code items.processing.items} - items processed / rejected / failed</li>
+ *     <li>{@code items.processing.failures} - failed chunks by exception type</li>
+ *     <li>{@code items.processing.dead.letters} - items moved to the dead-letter table, by pipeline stage</li>
+ *     <li>{@code items.processing.retries} - retried database calls by exception type</li>
+ *     <li>{@code items.processing.breaker.state} - database circuit breaker: 0 closed, 1 open, 2 half-open</li>
+ *     <li>{@code items.processing.chunks.in.flight} - chunks currently being worked on</li>
+ *     <li>{@code items.processing.limit} / {@code items.processing.limit.max} - current and maximum number of chunks
+ *     the adaptive limiter lets into flight</li>
+ *     <li>{@code executor.*} with name=items.processing - pool size, active count and queue depth</li>
+ *     <li>{@code items.write.behind.pending} - ids with updates in the write buffer, not written yet</li>
+ *     <li>{@code items.write.behind.flush} - time to write one batch of the write buffer; its count and the
+ *     {@code items.write.behind.items} counter give the batch size</li>
+ * </ul>
+ */
+@Component
+public class ProcessingMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer chunkTimer;
+    private final Counter processedItems;
+    private final Counter rejectedItems;
+    private final Counter failedItems;
+    private final AtomicInteger chunksInFlight = new AtomicInteger();
+
+    public ProcessingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.chunkTimer = Timer.builder("items.processing.chunk")
+                .description("Time to load, process and write one chunk of items")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.processedItems = Counter.builder("items.processing.items").tag("outcome", "processed").register(registry);
+        this.rejectedItems  = Counter.builder("items.processing.items").tag("outcome", "rejected").register(registry);
+        this.failedItems    = Counter.builder("items.processing.items").tag("outcome", "failed").register(registry);
+        Gauge.builder("items.processing.chunks.in.flight", chunksInFlight, AtomicInteger::get)
+                .description("Chunks currently being loaded or written")
+                .register(registry);
+    }
+
+    public void bindExecutor(ExecutorService executor) {
+        new ExecutorServiceMetrics(executor, "items.processing", Tags.empty()).bindTo(registry);
+    }
+
+    public void chunkStarted() {
+        chunksInFlight.incrementAndGet();
+    }
+
+    public void chunkProcessed(long startNanos, int processed, int rejected) {
+        chunksInFlight.decrementAndGet();
+        chunkTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        processedItems.increment(processed);
+        rejectedItems.increment(rejected);
+    }
+
+    public void chunkFailed(int items, Throwable cause) {
+        chunksInFlight.decrementAndGet();
+        failedItems.increment(items);
+        registry.counter("items.processing.failures", "exception", cause.getClass().getSimpleName()).increment();
+    }
+
+    public void itemDeadLettered(String stage) {
+        failedItems.increment();
+        registry.counter("items.processing.dead.letters", "stage", stage).increment();
+    }
+
+    public void retried(Throwable cause) {
+        registry.counter("items.processing.retries", "exception", cause.getClass().getSimpleName()).increment();
+    }
+
+    public void bindLimiter(AdaptiveLimiter limiter) {
+        Gauge.builder("items.processing.limit", limiter, AdaptiveLimiter::limit)
+                .description("Chunks the adaptive limiter currently lets into flight")
+                .register(registry);
+        Gauge.builder("items.processing.limit.max", limiter, AdaptiveLimiter::maxLimit)
+                .description("Upper bound of the adaptive limiter")
+                .register(registry);
+    }
+
+    public void bindBreaker(CircuitBreaker breaker) {
+        Gauge.builder("items.processing.breaker.state", breaker, b -> b.state().ordinal())
+                .description("Database circuit breaker: 0 closed, 1 open, 2 half-open")
+                .register(registry);
+    }
+
+    public void bindWriteBuffer(ItemWriteBuffer buffer) {
+        Gauge.builder("items.write.behind.pending", buffer, ItemWriteBuffer::size)
+                .description("Items with buffered updates that have not been written yet")
+                .register(registry);
+    }
+
+    public void writeBehindFlushed(long startNanos, int items) {
+        Timer.builder("items.write.behind.flush")
+                .description("Time to write one batch of buffered updates")
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        Counter.builder("items.write.behind.items").register(registry).increment(items);
+    }
+
+    public void stageCompleted(String stage, long startNanos) {
+        Timer.builder("items.processing.stage")
+                .description("Time one pipeline stage spends on a chunk")
+                .tag("stage", stage)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void runFinished(long startNanos, String outcome) {
+        Timer.builder("items.processing.run")
+                .description("Duration of a full processing run")
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,7 @@
+package com.siemens.internship.service;
+
+/**
+ * FULL visits every item. INCREMENTAL only visits the items written since the last successful run (see
+ * {@link com.siemens.internship.model.ProcessingCheckpoint}), so its cost follows the churn rather than the table size.
+ */
+public enum ProcessingMode { FULL, INCREMENTAL }
@@ -0,0 +1,53 @@
+package com.siemens.internship.service.pipeline;
+
+import com.siemens.internship.model.Item;
+import jakarta.validation.Validator;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Normalizes the e-mail (trimmed, domain lower-cased; the local part is case-sensitive and kept as is) and checks
+ * it against the {@code @ValidEmail} declared on {@link Item#getEmail()}. Items that still don't match are marked
+ * {@link StatusTransitionProcessor#REJECTED}, so the status stage leaves them out of the PROCESSED transition. A null
+ * e-mail is valid, as it is for the REST API.
+ */
+@Component
+@Order(200)
+public class EmailProcessor implements ItemProcessor {
+
+    private final Validator validator;
+
+    public EmailProcessor(Validator validator) {
+        this.validator = validator;
+    }
+
+    @Override
+    public String name() {
+        return "email";
+    }
+
+    @Override
+    public List<Item> process(List<Item> items) {
+        for (Item item : items) {
+            if (item.getEmail() != null) item.setEmail(normalize(item.getEmail()));
+
+            if (!validator.validateProperty(item, "email").isEmpty()) {
+                item.setStatus(StatusTransitionProcessor.REJECTED);
+            } else if (StatusTransitionProcessor.REJECTED.equals(item.getStatus())) {
+                // Rejected by an earlier run and fixed since: eligible for the transition again.
+                item.setStatus(null);
+            }
+        }
+        return items;
+    }
+
+    static String normalize(String email) {
+        String trimmed = email.strip();
+        int at = trimmed.lastIndexOf('@');
+        if (at < 0) return trimmed;
+        return trimmed.substring(0, at + 1) + trimmed.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,34 @@
+package com.siemens.internship.service.pipeline;
+
+import com.siemens.internship.model.Item;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills in what can be derived from the item itself: surrounding whitespace is trimmed from the name and the
+ * description, and a missing description defaults to the name. Lookups against other systems belong here as well;
+ * they are I/O bound, so give this stage more parallelism and a batch size the remote side accepts.
+ */
+@Component
+@Order(100)
+public class EnrichmentProcessor implements ItemProcessor {
+
+    @Override
+    public String name() {
+        return "enrichment";
+    }
+
+    @Override
+    public List<Item> process(List<Item> items) {
+        for (Item item : items) {
+            if (item.getName() != null) item.setName(item.getName().strip());
+            if (item.getDescription() != null) item.setDescription(item.getDescription().strip());
+            if ((item.getDescription() == null || item.getDescription().isEmpty()) && item.getName() != null) {
+                item.setDescription(item.getName());
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,16 @@
+package com.siemens.internship.service.pipeline;
+
+import com.siemens.internship.model.Item;
+
+import java.util.List;
+
+/**
+ * A chunk travelling through the pipeline: its ledger id, the ids that were listed for it, the items loaded for them
+ * and when the chunk was started, for the end-to-end latency.
+ */
+public record ItemBatch(Long chunkId, List<Long> ids, List<Item> items, long startNanos) {
+
+    ItemBatch with(List<Item> processed) {
+        return new ItemBatch(chunkId, ids, processed, startNanos);
+    }
+}
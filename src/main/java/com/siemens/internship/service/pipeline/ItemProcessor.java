@@ -0,0 +1,43 @@
+package com.siemens.internship.service.pipeline;
+
+import com.siemens.internship.model.Item;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * One stage of the processing pipeline. Every {@code ItemProcessor} bean is picked up by {@link ProcessingPipeline}
+ * and run in {@link org.springframework.core.annotation.Order} order, between loading a chunk and writing it back.
+ * <p>
+ * A stage gets its own worker threads and input queue, sized through
+ * {@code items.processing.stages.<name>.parallelism / batch-size / queue-capacity}, so a slow I/O stage can be given
+ * more workers without the CPU-bound ones competing for the same pool. Implementations are called concurrently
+ * from those workers and must be thread-safe.
+ */
+public interface ItemProcessor {
+
+    /** Key of this stage under {@code items.processing.stages}. */
+    String name();
+
+    /**
+     * Processes a batch of at most {@code batch-size} items and returns the ones to pass on. Items are mutated in
+     * place; an item left out of the result is neither written nor reported as processed. Throwing fails the whole
+     * chunk the batch belongs to.
+     */
+    List<Item> process(List<Item> items);
+
+    /** Stage from a plain function, e.g. the writer that ItemService appends. */
+    static ItemProcessor named(String name, UnaryOperator<List<Item>> process) {
+        return new ItemProcessor() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public List<Item> process(List<Item> items) {
+                return process.apply(items);
+            }
+        };
+    }
+}
@@ -0,0 +1,222 @@
+package com.siemens.internship.service.pipeline;
+
+import com.siemens.internship.config.ProcessingProperties;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.service.ProcessingMetrics;
+import com.siemens.internship.service.resilience.DatabaseGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs chunks through the {@link ItemProcessor} stages followed by a writer supplied by the caller.
+ * <p>
+ * Every stage has a bounded input queue and its own workers, so stages overlap: while one chunk is being written,
+ * the next one can already be validated. A full queue blocks the stage in front of it, which in the end blocks
+ * {@link Run#submit}; nothing is buffered without bound. Chunks are not kept in order across workers.
+ * <p>
+ * When a stage throws on a chunk, the chunk is run through that stage again one item at a time, so a single poison
+ * item doesn't take its whole chunk down: the items that fail on their own are reported through
+ * {@link Sink#onItemFailed} and dropped, the others carry on. Stages are idempotent, which makes re-running the
+ * items that already went through harmless. Transient database failures are not isolated this way; they were
+ * already retried by {@link DatabaseGuard} and would fail for every item alike, so they fail the chunk.
+ */
+@Slf4j
+@Component
+public class ProcessingPipeline {
+
+    /** Receives every chunk that leaves the pipeline. Called from the writer's workers; must not throw. */
+    public interface Sink {
+        void onBatch(ItemBatch batch);
+
+        void onFailure(ItemBatch batch, RuntimeException failure);
+
+        /** One item failed {@code stage} on its own and was dropped from its chunk; the chunk carries on. */
+        void onItemFailed(ItemBatch batch, String stage, Item item, RuntimeException failure);
+    }
+
+    // Marks the end of the input. It is passed on to the next queue once every worker of a stage has seen it.
+    private static final ItemBatch END = new ItemBatch(null, List.of(), List.of(), 0);
+
+    private final List<ItemProcessor> processors;
+    private final ProcessingProperties processingProperties;
+    private final ProcessingMetrics processingMetrics;
+
+    public ProcessingPipeline(List<ItemProcessor> processors, ProcessingProperties processingProperties,
+                              ProcessingMetrics processingMetrics) {
+        this.processors = List.copyOf(processors);
+        this.processingProperties = processingProperties;
+        this.processingMetrics = processingMetrics;
+    }
+
+    /**
+     * Starts the workers of one run on {@code executor}. The writer is the last stage, with
+     * {@code writerParallelism} workers unless {@code items.processing.stages.write} says otherwise.
+     */
+    public Run start(Executor executor, ItemProcessor writer, int writerParallelism, Sink sink) {
+        List<Stage> stages = new ArrayList<>();
+        processors.forEach(processor -> stages.add(new Stage(processor, settings(processor.name(), 1))));
+        stages.add(new Stage(writer, settings(writer.name(), writerParallelism)));
+
+        Run run = new Run(stages, sink);
+        run.startWorkers(executor);
+        return run;
+    }
+
+    private ProcessingProperties.Stage settings(String name, int defaultParallelism) {
+        ProcessingProperties.Stage configured = processingProperties.getStages().get(name);
+        if (configured != null) return configured;
+
+        ProcessingProperties.Stage defaults = new ProcessingProperties.Stage();
+        defaults.setParallelism(defaultParallelism);
+        return defaults;
+    }
+
+    private record Stage(ItemProcessor processor, ProcessingProperties.Stage settings) {
+    }
+
+    public final class Run {
+        private final List<Stage> stages;
+        private final List<BlockingQueue<ItemBatch>> queues = new ArrayList<>();
+        private final List<AtomicInteger> liveWorkers = new ArrayList<>();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final Sink sink;
+
+        private Run(List<Stage> stages, Sink sink) {
+            this.stages = stages;
+            this.sink = sink;
+            for (Stage stage : stages) {
+                queues.add(new ArrayBlockingQueue<>(Math.max(1, stage.settings().getQueueCapacity())));
+                liveWorkers.add(new AtomicInteger(Math.max(1, stage.settings().getParallelism())));
+            }
+        }
+
+        private void startWorkers(Executor executor) {
+            for (int i = 0; i < stages.size(); i++) {
+                for (int w = 0; w < liveWorkers.get(i).get(); w++) {
+                    int stage = i;
+                    executor.execute(() -> work(stage));
+                }
+            }
+        }
+
+        /** Hands a loaded chunk to the first stage, blocking while its queue is full. */
+        public void submit(ItemBatch batch) throws InterruptedException {
+            queues.get(0).put(batch);
+        }
+
+        /** Signals the end of the input and waits until every submitted chunk has reached the sink. */
+        public void close() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    queues.get(0).put(END);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            while (true) {
+                try {
+                    finished.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+
+        private void work(int stage) {
+            BlockingQueue<ItemBatch> input = queues.get(stage);
+            try {
+                while (true) {
+                    ItemBatch batch = input.take();
+                    if (batch == END) {
+                        // Leave the marker for the other workers of this stage; the last one forwards it.
+                        input.put(END);
+                        break;
+                    }
+                    ItemBatch processed;
+                    try {
+                        processed = apply(stages.get(stage), batch);
+                    } catch (RuntimeException e) {
+                        sink.onFailure(batch, e);
+                        continue;
+                    }
+                    if (stage == stages.size() - 1) sink.onBatch(processed);
+                    else queues.get(stage + 1).put(processed);
+                }
+            } catch (InterruptedException e) {
+                // The executor is shutting down; whatever is still queued is dropped.
+                Thread.currentThread().interrupt();
+                log.warn("Pipeline stage {} interrupted", stages.get(stage).processor().name());
+            } finally {
+                if (liveWorkers.get(stage).decrementAndGet() == 0) endOf(stage);
+            }
+        }
+
+        private void endOf(int stage) {
+            if (stage == stages.size() - 1) {
+                finished.countDown();
+                return;
+            }
+            queues.get(stage).clear();
+            try {
+                queues.get(stage + 1).put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finished.countDown();
+            }
+        }
+
+        private ItemBatch apply(Stage stage, ItemBatch batch) {
+            long startNanos = System.nanoTime();
+            int batchSize = stage.settings().getBatchSize();
+            List<Item> items = batch.items();
+
+            List<Item> out;
+            if (batchSize <= 0 || items.size() <= batchSize) {
+                out = processOrIsolate(stage, batch, items);
+            } else {
+                out = new ArrayList<>(items.size());
+                for (int from = 0; from < items.size(); from += batchSize) {
+                    out.addAll(processOrIsolate(stage, batch, items.subList(from, Math.min(items.size(), from + batchSize))));
+                }
+            }
+            processingMetrics.stageCompleted(stage.processor().name(), startNanos);
+            return batch.with(out);
+        }
+
+        private List<Item> processOrIsolate(Stage stage, ItemBatch batch, List<Item> items) {
+            try {
+                return stage.processor().process(items);
+            } catch (RuntimeException e) {
+                if (DatabaseGuard.isTransient(e)) throw e;
+                if (items.size() == 1) {
+                    sink.onItemFailed(batch, stage.processor().name(), items.get(0), e);
+                    return List.of();
+                }
+                log.debug("Stage {} failed on {} items, retrying them one by one", stage.processor().name(), items.size(), e);
+            }
+
+            List<Item> out = new ArrayList<>(items.size());
+            for (Item item : items) {
+                try {
+                    out.addAll(stage.processor().process(List.of(item)));
+                } catch (RuntimeException e) {
+                    if (DatabaseGuard.isTransient(e)) throw e;
+                    sink.onItemFailed(batch, stage.processor().name(), item, e);
+                }
+            }
+            return out;
+        }
+    }
+}
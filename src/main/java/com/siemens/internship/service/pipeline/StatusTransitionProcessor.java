@@ -0,0 +1,30 @@
+package com.siemens.internship.service.pipeline;
+
+import com.siemens.internship.model.Item;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Last stage before the write: every item that an earlier stage didn't reject moves to PROCESSED.
+ */
+@Component
+@Order(300)
+public class StatusTransitionProcessor implements ItemProcessor {
+    public static final String PROCESSED = "PROCESSED";
+    public static final String REJECTED  = "REJECTED";
+
+    @Override
+    public String name() {
+        return "status";
+    }
+
+    @Override
+    public List<Item> process(List<Item> items) {
+        for (Item item : items) {
+            if (!REJECTED.equals(item.getStatus())) item.setStatus(PROCESSED);
+        }
+        return items;
+    }
+}
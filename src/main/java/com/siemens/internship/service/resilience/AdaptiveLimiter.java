@@ -0,0 +1,124 @@
+package com.siemens.internship.service.resilience;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows the latency of the work it admits, in the style of TCP Vegas / Netflix's gradient
+ * limiter. Two averages of the per-item latency are kept: a long-term one, which stands for the latency without
+ * queueing, and the latest sample. While the sample stays within {@code tolerance} of the long-term average, the limit
+ * grows by about its square root per sample; once queueing pushes the sample above that, the limit shrinks in
+ * proportion (by at most half). Work that failed because the dependency is overloaded cuts the limit by 10%. Every
+ * step is smoothed, so a single outlier doesn't swing the limit.
+ * <p>
+ * Samples taken while less than half of the limit is in use are ignored for growth: with the limit not being the
+ * bottleneck they say nothing about how much more concurrency the dependency could take.
+ */
+public class AdaptiveLimiter {
+    static final double SMOOTHING = 0.2;
+    static final double BACKOFF_RATIO = 0.9;
+    // Samples the long-term average roughly spans.
+    static final int LONG_WINDOW = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private double longLatency;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.tolerance = tolerance;
+        this.limit = clamp(initialLimit);
+    }
+
+    /** Fixed limit: never adapts, behaves like a semaphore with {@code permits} permits. */
+    public static AdaptiveLimiter fixed(int permits) {
+        return new AdaptiveLimiter(permits, permits, permits, 1.0);
+    }
+
+    /** Blocks until the number of tasks in flight is below the current limit, then counts one more. */
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) available.await();
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a task started with {@link #acquire()}. {@code items} is the amount of work it covered, so its latency can
+     * be compared per item; a task that covered nothing gives no sample. {@code overloaded} marks a failure caused
+     * by the dependency being overloaded or down.
+     */
+    public void release(long latencyNanos, int items, boolean overloaded) {
+        lock.lock();
+        try {
+            int concurrency = inFlight--;
+            if (overloaded) {
+                limit = clamp(limit * BACKOFF_RATIO);
+            } else if (items > 0 && latencyNanos > 0) {
+                sample((double) latencyNanos / items, concurrency);
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Ends a task that was admitted but never started, without a sample. */
+    public void cancel() {
+        lock.lock();
+        try {
+            inFlight--;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sample(double latency, int concurrency) {
+        longLatency = longLatency == 0 ? latency : longLatency + (latency - longLatency) / LONG_WINDOW;
+        // After a stretch of overload the long-term average has crept up; pull it back once latency recovers.
+        if (longLatency > 2 * latency) longLatency *= 0.95;
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatency / latency));
+        if (gradient == 1.0 && concurrency < limit / 2) return;
+
+        double target = gradient == 1.0 ? limit + Math.sqrt(limit) : limit * gradient;
+        limit = clamp(limit * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int maxLimit() {
+        return maxLimit;
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.siemens.internship.service.resilience;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. The outcomes of the last {@code windowSize} calls are kept in a ring; once at least
+ * {@code minimumCalls} were recorded and the share of failures reaches {@code failureRateThreshold}, the breaker
+ * opens and refuses every call for {@code openFor}. After that a single trial call is let through: its success
+ * closes the breaker with an empty window, its failure opens it again.
+ * <p>
+ * Every permitted call must report exactly one of {@link #onSuccess()}, {@link #onFailure()} or
+ * {@link #onIgnored()}, otherwise a half-open breaker waits for its trial forever.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final boolean[] failures;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openForNanos;
+    private final LongSupplier nanoTime;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failed;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openFor) {
+        this(windowSize, minimumCalls, failureRateThreshold, openFor, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openFor, LongSupplier nanoTime) {
+        this.failures = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, failures.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openForNanos = openFor.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /** Whether a call may go ahead now. An open breaker whose time is up turns half-open and admits one trial. */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoTime.getAsLong() - openedAt < openForNanos) return false;
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default:
+                if (trialInFlight) return false;
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) close();
+        else if (state == State.CLOSED) record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) open();
+        else if (state == State.CLOSED && record(true)) open();
+    }
+
+    /** The call failed for a reason that says nothing about the dependency, e.g. a bug in the caller. */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) trialInFlight = false;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    /** How long the breaker stays open; zero when calls are admitted (or a trial may be). */
+    public synchronized Duration retryAfter() {
+        if (state != State.OPEN) return Duration.ZERO;
+        return Duration.ofNanos(Math.max(0, openForNanos - (nanoTime.getAsLong() - openedAt)));
+    }
+
+    // Returns true when the failure rate of the window crossed the threshold.
+    private boolean record(boolean failure) {
+        if (recorded == failures.length) {
+            if (failures[next]) failed--;
+        } else {
+            recorded++;
+        }
+        failures[next] = failure;
+        if (failure) failed++;
+        next = (next + 1) % failures.length;
+        return recorded >= minimumCalls && failed >= failureRateThreshold * recorded;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoTime.getAsLong();
+        trialInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        trialInFlight = false;
+        next = 0;
+        recorded = 0;
+        failed = 0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.siemens.internship.service.resilience;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/** Thrown instead of calling the database while the circuit breaker is open. */
+@Getter
+public class CircuitOpenException extends RuntimeException {
+
+    /** How long the breaker is going to stay open; a hint for callers and for HTTP Retry-After. */
+    private final Duration retryAfter;
+
+    public CircuitOpenException(Duration retryAfter) {
+        super("Database circuit breaker is open, retry in " + retryAfter.toMillis() + " ms");
+        this.retryAfter = retryAfter;
+    }
+}
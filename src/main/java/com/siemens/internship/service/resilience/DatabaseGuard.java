@@ -0,0 +1,134 @@
+package com.siemens.internship.service.resilience;
+
+import com.siemens.internship.config.ProcessingProperties;
+import com.siemens.internship.service.ProcessingMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs the database calls of the processing engine with retries and behind one shared circuit breaker.
+ * <p>
+ * Only transient failures are retried: Spring's transient and recoverable data access exceptions, a connection that
+ * couldn't be obtained, JDBC's SQLTransientException / SQLRecoverableException, and an open breaker. Anything else
+ * (a constraint violation, a bad column value) fails the same way on every attempt and is thrown right away, so the
+ * caller can isolate the item that caused it. Database failures of either kind count against the breaker.
+ */
+@Slf4j
+@Component
+public class DatabaseGuard {
+
+    private final ProcessingProperties.Retry retry;
+    private final CircuitBreaker breaker;
+    private final ProcessingMetrics processingMetrics;
+
+    public DatabaseGuard(ProcessingProperties processingProperties, ProcessingMetrics processingMetrics) {
+        ProcessingProperties.Breaker settings = processingProperties.getBreaker();
+        this.retry = processingProperties.getRetry();
+        this.breaker = new CircuitBreaker(settings.getWindowSize(), settings.getMinimumCalls(),
+                settings.getFailureRateThreshold(), settings.getOpenFor());
+        this.processingMetrics = processingMetrics;
+        processingMetrics.bindBreaker(breaker);
+    }
+
+    public <T> T call(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return attempt(action);
+            } catch (RuntimeException e) {
+                if (!isTransient(e) || attempt >= retry.getMaxAttempts()) throw e;
+
+                Duration wait = backoff(attempt);
+                if (e instanceof CircuitOpenException open && open.getRetryAfter().compareTo(wait) > 0) {
+                    wait = open.getRetryAfter();
+                }
+                log.debug("Transient database failure, attempt {}/{}, retrying in {} ms: {}",
+                        attempt, retry.getMaxAttempts(), wait.toMillis(), e.toString());
+                processingMetrics.retried(e);
+                sleep(wait, e);
+            }
+        }
+    }
+
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /** Blocks while the breaker is open; this is how the reader stops claiming chunks from a failing database. */
+    public void awaitClosed() throws InterruptedException {
+        for (Duration wait = breaker.retryAfter(); !wait.isZero(); wait = breaker.retryAfter()) {
+            log.warn("Database circuit breaker is open, pausing for {} ms", wait.toMillis());
+            Thread.sleep(Math.max(1, wait.toMillis()));
+        }
+    }
+
+    public CircuitBreaker.State state() {
+        return breaker.state();
+    }
+
+    private <T> T attempt(Supplier<T> action) {
+        if (!breaker.tryAcquire()) throw new CircuitOpenException(breaker.retryAfter());
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            if (isDatabaseFailure(e)) breaker.onFailure();
+            else breaker.onIgnored();
+            throw e;
+        }
+        breaker.onSuccess();
+        return result;
+    }
+
+    // Full jitter: uniformly random in [0, min(maxBackoff, initialBackoff * multiplier^(attempt - 1))].
+    private Duration backoff(int attempt) {
+        double ceiling = retry.getInitialBackoff().toMillis() * Math.pow(retry.getMultiplier(), attempt - 1);
+        long capped = (long) Math.min(retry.getMaxBackoff().toMillis(), ceiling);
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(capped + 1));
+    }
+
+    private static void sleep(Duration wait, RuntimeException failure) {
+        try {
+            Thread.sleep(wait.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.addSuppressed(e);
+            throw failure;
+        }
+    }
+
+    public static boolean isTransient(Throwable failure) {
+        if (failure instanceof CircuitOpenException
+                || failure instanceof TransientDataAccessException
+                || failure instanceof RecoverableDataAccessException
+                || failure instanceof CannotCreateTransactionException) {
+            return true;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientException || cause instanceof SQLRecoverableException) return true;
+        }
+        return false;
+    }
+
+    static boolean isDatabaseFailure(Throwable failure) {
+        if (failure instanceof DataAccessException || failure instanceof TransactionException) return true;
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+package com.siemens.internship.service.resilience;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key. The first caller starts the call; everyone arriving while it is in
+ * flight gets its outcome instead of running it again. Once the call completes the key is released, so the next
+ * caller starts a fresh one: results are shared, never kept.
+ * <p>
+ * The in-flight future is published with a plain putIfAbsent and the call runs outside the map, unlike
+ * ConcurrentHashMap.computeIfAbsent, which would hold a lock of the map for the whole call and block unrelated keys
+ * in the same bin (and pin the carrier of a virtual thread while doing so).
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Joins the call in flight for {@code key}, or starts one with {@code call}, on the caller's thread. Every
+     * caller gets a future of its own, so cancelling it doesn't affect the others.
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> current = inFlight.putIfAbsent(key, flight);
+        if (current != null) return current.copy();
+
+        CompletableFuture<V> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        // Released before completing, so whoever sees the outcome and calls again starts a new call.
+        result.whenComplete((value, failure) -> {
+            inFlight.remove(key, flight);
+            if (failure != null) flight.completeExceptionally(failure);
+            else flight.complete(value);
+        });
+        return flight.copy();
+    }
+
+    /** Number of keys with a call in flight. */
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,52 @@
+package com.siemens.internship.service.resilience;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limit as a token bucket: it holds up to {@code burst} tokens, refilled at {@code ratePerSecond}, and every
+ * admitted call takes one. A full bucket lets a burst through at once; after that calls are admitted at the refill
+ * rate. Refilling happens lazily on each call, so an idle bucket costs nothing.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoTime;
+
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        this(ratePerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double ratePerSecond, int burst, LongSupplier nanoTime) {
+        this.capacity = Math.max(1, burst);
+        this.tokensPerNano = ratePerSecond / 1e9;
+        this.nanoTime = nanoTime;
+        this.tokens = capacity;
+        this.refilledAt = nanoTime.getAsLong();
+    }
+
+    /** Takes a token if there is one. */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1) return false;
+        tokens--;
+        return true;
+    }
+
+    /** How long until the next token is available; zero when there is one now. */
+    public synchronized Duration retryAfter() {
+        refill();
+        if (tokens >= 1) return Duration.ZERO;
+        return Duration.ofNanos((long) Math.ceil((1 - tokens) / tokensPerNano));
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+}
@@ -0,0 +1,67 @@
+package com.siemens.internship.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Validator of {@link ValidEmail}. The regex it replaces, {@code [a-zA-Z][.0-9a-zA-Z]+@([.a-zA-Z]+)+(\.[a-z]+)+},
+ * nests a quantifier inside another, and a domain of letters that fails at its last character makes the matcher
+ * retry the ways of splitting it. java.util.regex memoizes enough of that to stay polynomial rather than exponential,
+ * but the cost still grows faster than quadratically: "aa@" followed by 20,000 times "a." and an "A" takes about
+ * 50 seconds, in a request body of 40 KB. The language itself is simple:
+ * <ul>
+ *     <li>a local part of at least two characters out of {@code [.0-9a-zA-Z]}, starting with a letter,</li>
+ *     <li>a single {@code @},</li>
+ *     <li>a domain of {@code [.a-zA-Z]} ending in a dot followed by one or more lower-case letters, with at least one
+ *     character before that dot. {@code ([.a-zA-Z]+)+} is just {@code [.a-zA-Z]+}, and whenever a suffix matches
+ *     {@code (\.[a-z]+)+} its last group alone does too, the rest being absorbed by the part before.</li>
+ * </ul>
+ * which is checked here in one pass over the characters, without allocating.
+ */
+public class EmailValidator implements ConstraintValidator<ValidEmail, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || isValid(value);
+    }
+
+    public static boolean isValid(CharSequence email) {
+        int length = email.length();
+        if (length == 0 || !isLetter(email.charAt(0))) return false;
+
+        int i = 1;
+        while (i < length && isLocal(email.charAt(i))) i++;
+        // local part: the leading letter and at least one more character
+        if (i < 2 || i == length || email.charAt(i) != '@') return false;
+
+        int domain = ++i;
+        // start of the trailing run of lower-case letters, and the dot right before it if there was one
+        int run = -1;
+        int lastDot = -1;
+        for (; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                lastDot = i;
+                run = -1;
+            } else if (isLetter(c)) {
+                if (c < 'a' || c > 'z') {
+                    run = -1;
+                } else if (run < 0) {
+                    run = i;
+                }
+            } else {
+                return false;
+            }
+        }
+        // ".tld" at the end, right after the dot, and something in front of the dot
+        return run >= 0 && lastDot == run - 1 && lastDot > domain;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isLocal(char c) {
+        return isLetter(c) || (c >= '0' && c <= '9') || c == '.';
+    }
+}
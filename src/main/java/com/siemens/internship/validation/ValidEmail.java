@@ -0,0 +1,28 @@
+package com.siemens.internship.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The e-mail format accepted for items, checked in linear time by {@link EmailValidator}. It accepts exactly the
+ * strings matching {@code [a-zA-Z][.0-9a-zA-Z]+@([.a-zA-Z]+)+(\.[a-z]+)+}, the regex the field used to be validated
+ * with. null is valid.
+ */
+@Documented
+@Constraint(validatedBy = EmailValidator.class)
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER, ElementType.TYPE_USE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidEmail {
+
+    String message() default "The e-mail is invalid";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,77 @@
+-- Schema as Hibernate generated it under ddl-auto=update; from here on it only changes through new migrations.
+
+create sequence item_seq start with 1 increment by 50;
+
+create sequence processing_chunk_seq start with 1 increment by 50;
+
+create table item (
+    id bigint not null,
+    name varchar(255),
+    description varchar(255),
+    status varchar(255),
+    email varchar(255),
+    version bigint,
+    updated_at timestamp(6) with time zone,
+    processed_at timestamp(6) with time zone,
+    primary key (id)
+);
+
+create index idx_item_updated_at on item (updated_at, id);
+create index idx_item_status on item (status, id);
+create index idx_item_email on item (email, id);
+
+create table item_event (
+    id bigint generated by default as identity,
+    position bigint,
+    item_id bigint not null,
+    type enum ('CREATED','DELETED','PROCESSED','UPDATED') not null,
+    status varchar(255),
+    occurred_at timestamp(6) with time zone,
+    primary key (id),
+    constraint idx_item_event_position unique (position)
+);
+
+create table dead_letter (
+    item_id bigint not null,
+    run_id uuid,
+    stage varchar(255),
+    exception varchar(255),
+    error varchar(1000),
+    failures integer not null,
+    first_failed_at timestamp(6) with time zone,
+    last_failed_at timestamp(6) with time zone,
+    primary key (item_id)
+);
+
+create table processing_checkpoint (
+    name varchar(255) not null,
+    watermark timestamp(6) with time zone,
+    primary key (name)
+);
+
+create table processing_run (
+    id uuid not null,
+    mode enum ('FULL','INCREMENTAL'),
+    state enum ('CANCELLED','COMPLETED','FAILED','RUNNING'),
+    since timestamp(6) with time zone,
+    started_at timestamp(6) with time zone,
+    finished_at timestamp(6) with time zone,
+    chunks integer not null,
+    primary key (id)
+);
+
+create table processing_chunk (
+    id bigint not null,
+    run_id uuid,
+    first_id bigint not null,
+    last_id bigint not null,
+    state enum ('CLAIMED','DONE','FAILED','PENDING'),
+    owner varchar(255),
+    lease_until timestamp(6) with time zone,
+    attempts integer not null,
+    processed integer not null,
+    error varchar(1000),
+    primary key (id)
+);
+
+create index idx_processing_chunk_run_state on processing_chunk (run_id, state);
@@ -0,0 +1,7 @@
+-- The optimistic checks (UPDATE ... WHERE id = ? AND version = ?) never match a NULL version, so rows inserted
+-- outside JPA, or left by the ddl-auto schema, were skipped by processing forever. They start at version 0.
+
+update item set version = 0 where version is null;
+
+alter table item alter column version set default 0;
+alter table item alter column version set not null;
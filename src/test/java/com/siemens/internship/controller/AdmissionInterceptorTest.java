@@ -0,0 +1,111 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemFilter;
+import com.siemens.internship.service.ItemChangeCounter;
+import com.siemens.internship.service.ItemPage;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ProcessingListener;
+import com.siemens.internship.service.ProcessingMode;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Budgets small enough to run out within a test: one list request per 100 s and one processing run at a time.
+ */
+@WebMvcTest(ItemController.class)
+@Import(ItemChangeCounter.class)
+@TestPropertySource(properties = {
+        "items.admission.budgets.list.rate=0.01",
+        "items.admission.budgets.list.burst=1",
+        "items.admission.budgets.process.max-concurrent=1",
+        "items.admission.budgets.process.rate=0",
+        "items.admission.budgets.process.retry-after=3s"
+})
+class AdmissionInterceptorTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ItemService itemService;
+
+    @Test
+    void rateLimitRejectsWith429_andLeavesPointReadsAlone() throws Exception {
+        Item item = new Item(1L, "Test Item", "A test description", "NEW", "test@example.com");
+        Mockito.when(itemService.findPage(ItemFilter.NONE, null, 100)).thenReturn(new ItemPage<>(List.of(item), null));
+        Mockito.when(itemService.findById(1L)).thenReturn(Optional.of(item));
+
+        mockMvc.perform(get("/api/items")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/items"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "100"));
+
+        mockMvc.perform(get("/api/items/1")).andExpect(status().isOk());
+    }
+
+    @Test
+    void bulkheadRejectsWith503WhileFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<List<Item>> run = new CompletableFuture<>();
+        Mockito.when(itemService.processItemsAsync(ProcessingMode.FULL)).thenAnswer(invocation -> {
+            started.countDown();
+            return run;
+        });
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> {
+            try {
+                mockMvc.perform(get("/api/items/process")).andExpect(status().isNoContent());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        mockMvc.perform(get("/api/items/process"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"));
+
+        run.complete(List.of());
+        first.get(5, TimeUnit.SECONDS);
+        mockMvc.perform(get("/api/items/process")).andExpect(status().isNoContent());
+    }
+
+    @Test
+    void streamingRequestHoldsItsPermitUntilTheStreamEnds() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            ProcessingListener listener = invocation.getArgument(1);
+            listener.onChunk(List.of());
+            return null;
+        }).when(itemService).processItems(eq(ProcessingMode.FULL), any(ProcessingListener.class));
+        Mockito.when(itemService.processItemsAsync(ProcessingMode.FULL)).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        MvcResult stream = mockMvc.perform(get("/api/items/process/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(get("/api/items/process")).andExpect(status().isServiceUnavailable());
+
+        mockMvc.perform(asyncDispatch(stream)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/items/process")).andExpect(status().isNoContent());
+    }
+}
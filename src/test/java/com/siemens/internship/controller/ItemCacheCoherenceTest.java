@@ -0,0 +1,71 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemEvent;
+import com.siemens.internship.service.ItemEventDispatcher;
+import com.siemens.internship.service.ItemOutbox;
+import com.siemens.internship.service.ItemService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs against the real cache and outbox. Another instance is the same database written without this instance's
+ * ItemService, so only the outbox events tell this one about the write. Dispatcher rounds are driven by the test.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:coherence",
+        "items.events.poll-interval=PT1H"
+})
+@AutoConfigureMockMvc
+class ItemCacheCoherenceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemOutbox outbox;
+
+    @Autowired
+    private ItemEventDispatcher dispatcher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactions;
+
+    @Test
+    void getItemById_ShouldNotReturnNotModifiedOnceAnotherInstanceWroteTheItem() throws Exception {
+        Item item = itemService.save(new Item(null, "local", "desc", "NEW", "email@test.com"));
+        dispatcher.dispatch();
+        String etag = mockMvc.perform(get("/api/items/" + item.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // What ItemService.updateItem commits on the other instance: the row with its version moved, and the event.
+        transactions.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE item SET name = 'remote', version = version + 1 WHERE id = ?", item.getId());
+            outbox.append(ItemEvent.Type.UPDATED, List.of(item));
+        });
+        dispatcher.dispatch();
+
+        mockMvc.perform(get("/api/items/" + item.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("remote"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (item.getVersion() + 1) + "\""));
+    }
+}
@@ -1,27 +1,43 @@
 package com.siemens.internship.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siemens.internship.exception.ConflictException;
 import com.siemens.internship.exception.NotFoundException;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemFilter;
+import com.siemens.internship.repository.StatusCount;
+import com.siemens.internship.service.ItemCacheStats;
+import com.siemens.internship.service.ItemChangeCounter;
+import com.siemens.internship.service.ItemPage;
 import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ProcessingListener;
+import com.siemens.internship.service.ProcessingMode;
+import com.siemens.internship.service.ProcessingSummary;
+import com.siemens.internship.service.resilience.CircuitOpenException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ItemController.class)
+@Import(ItemChangeCounter.class)
 @EnableAsync
 public class ItemControllerTest {
 
@@ -34,24 +50,114 @@ public class ItemControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ItemChangeCounter itemChanges;
+
     @Test
     void getAllItems_ShouldReturnList() throws Exception {
         List<Item> items = List.of(new Item(1L, "Test Item", "A test description", "NEW", "test@example.com"));
-        Mockito.when(itemService.findAll()).thenReturn(items);
+        Mockito.when(itemService.findPage(ItemFilter.NONE, null, 100)).thenReturn(new ItemPage<>(items, null));
 
         mockMvc.perform(get("/api/items"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].name").value("Test Item"));
+                .andExpect(jsonPath("$[0].name").value("Test Item"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
     }
 
     @Test
     void getAllItems_ShouldReturnNoContent() throws Exception {
-        Mockito.when(itemService.findAll()).thenReturn(Collections.emptyList());
+        Mockito.when(itemService.findPage(ItemFilter.NONE, null, 100)).thenReturn(new ItemPage<>(Collections.emptyList(), null));
 
         mockMvc.perform(get("/api/items"))
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void getAllItems_ShouldReturnNextCursor() throws Exception {
+        List<Item> items = List.of(
+                new Item(11L, "Item11", "desc", "NEW", "test@example.com"),
+                new Item(12L, "Item12", "desc", "NEW", "test@example.com"));
+        Mockito.when(itemService.findPage(ItemFilter.NONE, 10L, 2)).thenReturn(new ItemPage<>(items, 12L));
+
+        mockMvc.perform(get("/api/items?after=10&limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string("X-Next-Cursor", "12"))
+                .andExpect(header().string("Link", "<http://localhost/api/items?limit=2&after=12>; rel=\"next\""));
+    }
+
+    @Test
+    void getAllItems_ShouldReturnProjectedFields() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("status", "NEW");
+        Mockito.when(itemService.findPage(ItemFilter.NONE, null, 100, List.of("id", "status")))
+                .thenReturn(new ItemPage<>(List.of(row), null));
+
+        mockMvc.perform(get("/api/items").param("fields", "id,status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("NEW"))
+                .andExpect(jsonPath("$[0].name").doesNotExist());
+    }
+
+    @Test
+    void getAllItems_ShouldRejectUnknownField() throws Exception {
+        Mockito.when(itemService.findPage(ItemFilter.NONE, null, 100, List.of("password")))
+                .thenThrow(new IllegalArgumentException("Unknown field: password"));
+
+        mockMvc.perform(get("/api/items").param("fields", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllItems_ShouldFilterByStatusAndEmail() throws Exception {
+        List<Item> items = List.of(new Item(3L, "Item3", "desc", "PROCESSED", "test@example.com"));
+        Mockito.when(itemService.findPage(new ItemFilter("PROCESSED", "test@example.com"), null, 100))
+                .thenReturn(new ItemPage<>(items, null));
+
+        mockMvc.perform(get("/api/items").param("status", "PROCESSED").param("email", "test@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3));
+    }
+
+    @Test
+    void getAllItems_ShouldReturnNotModifiedUntilAnItemChanges() throws Exception {
+        List<Item> items = List.of(new Item(1L, "Test Item", "A test description", "NEW", "test@example.com"));
+        Mockito.when(itemService.findPage(ItemFilter.NONE, null, 100)).thenReturn(new ItemPage<>(items, null));
+
+        String etag = mockMvc.perform(get("/api/items"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/items").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        Mockito.verify(itemService, Mockito.times(1)).findPage(ItemFilter.NONE, null, 100);
+
+        itemChanges.changed();
+        mockMvc.perform(get("/api/items").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", itemChanges.etag()));
+    }
+
+    @Test
+    void getStatusCounts_ShouldReturnCounts() throws Exception {
+        Mockito.when(itemService.countByStatus(null))
+                .thenReturn(List.of(new StatusCount("NEW", 2), new StatusCount("PROCESSED", 5)));
+
+        mockMvc.perform(get("/api/items/status/counts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].status").value("PROCESSED"))
+                .andExpect(jsonPath("$[1].count").value(5));
+    }
+
+    @Test
+    void getAllItems_ShouldRejectOversizedLimit() throws Exception {
+        mockMvc.perform(get("/api/items").param("limit", "5000"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void createItem_ShouldReturnCreated() throws Exception {
         Item item = new Item(1L, "Test Item", "A test description", "NEW", "test@example.com");
@@ -64,6 +170,88 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.name").value("Test Item"));
     }
 
+    @Test
+    void createItem_ShouldRejectInvalidEmail() throws Exception {
+        Item item = new Item(null, "Test Item", "A test description", "NEW", "not-an-email");
+
+        mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isBadRequest());
+        Mockito.verify(itemService, Mockito.never()).save(any(Item.class));
+    }
+
+    @Test
+    void createItems_ShouldReturnCreated() throws Exception {
+        List<Item> items = List.of(
+                new Item(null, "Item1", "desc", "NEW", "test@example.com"),
+                new Item(null, "Item2", "desc", "NEW", "test2@example.com"));
+        Mockito.when(itemService.saveAll(any())).thenReturn(List.of(
+                new Item(1L, "Item1", "desc", "NEW", "test@example.com"),
+                new Item(2L, "Item2", "desc", "NEW", "test2@example.com")));
+
+        mockMvc.perform(post("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[1].id").value(2));
+    }
+
+    @Test
+    void createItems_ShouldReportInvalidItemsByIndex() throws Exception {
+        List<Item> items = List.of(
+                new Item(null, "Item1", "desc", "NEW", "test@example.com"),
+                new Item(null, "Item2", "desc", "NEW", "bad email"));
+
+        mockMvc.perform(post("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].index").value(1))
+                .andExpect(jsonPath("$[0].field").value("email"));
+        Mockito.verify(itemService, Mockito.never()).saveAll(any());
+    }
+
+    @Test
+    void createItems_ShouldRejectTooManyItems() throws Exception {
+        List<Item> items = Collections.nCopies(10_001, new Item(null, "Item", "desc", "NEW", "test@example.com"));
+
+        mockMvc.perform(post("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void updateItems_ShouldReturnNotFound() throws Exception {
+        List<Item> items = List.of(new Item(1L, "Item1", "desc", "NEW", "test@example.com"));
+        Mockito.when(itemService.updateAll(any())).thenThrow(new NotFoundException("No items found at the given ids: [1]"));
+
+        mockMvc.perform(put("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void updateItems_ShouldRequireIds() throws Exception {
+        List<Item> items = List.of(new Item(null, "Item1", "desc", "NEW", "test@example.com"));
+
+        mockMvc.perform(put("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deleteItems_ShouldReturnNoContent() throws Exception {
+        mockMvc.perform(delete("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2, 3]"))
+                .andExpect(status().isNoContent());
+        Mockito.verify(itemService).deleteAllById(List.of(1L, 2L, 3L));
+    }
+
     @Test
     void getItemById_ShouldReturnItem() throws Exception {
         Item item = new Item(1L, "Test Item", "A test description", "NEW", "test@example.com");
@@ -74,6 +262,41 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.name").value("Test Item"));
     }
 
+    @Test
+    void getItemById_ShouldReturnNotModifiedForCurrentVersion() throws Exception {
+        Item item = new Item(1L, "Test Item", "A test description", "NEW", "test@example.com");
+        item.setVersion(3L);
+        Mockito.when(itemService.findById(1L)).thenReturn(Optional.of(item));
+
+        mockMvc.perform(get("/api/items/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+        mockMvc.perform(get("/api/items/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/items/1").header("If-None-Match", "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    void getItemById_ShouldNotReturnNotModifiedWhileAnUpdateIsBuffered() throws Exception {
+        Item buffered = new Item(1L, "New Name", "A test description", "NEW", "test@example.com");
+        buffered.setVersion(3L);
+        Mockito.when(itemService.updateItem(eq(1L), any(Item.class))).thenReturn(Optional.of(buffered));
+        Mockito.when(itemService.findById(1L)).thenReturn(Optional.of(buffered));
+        Mockito.when(itemService.hasPendingUpdate(1L)).thenReturn(true);
+
+        mockMvc.perform(put("/api/items/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"New Name\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+        mockMvc.perform(get("/api/items/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.name").value("New Name"));
+    }
+
     @Test
     void getItemById_ShouldReturnNotFound() throws Exception {
         Mockito.when(itemService.findById(999L)).thenReturn(Optional.empty());
@@ -82,6 +305,24 @@ public class ItemControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void getCacheStats_ShouldReturnCounters() throws Exception {
+        Mockito.when(itemService.cacheStats()).thenReturn(Optional.of(new ItemCacheStats(3, 8, 2, 0.8, 1)));
+
+        mockMvc.perform(get("/api/items/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(8))
+                .andExpect(jsonPath("$.evictions").value(1));
+    }
+
+    @Test
+    void getCacheStats_ShouldReturnNoContentWhenDisabled() throws Exception {
+        Mockito.when(itemService.cacheStats()).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/items/cache/stats"))
+                .andExpect(status().isNoContent());
+    }
+
     @Test
     void updateItem_ShouldReturnUpdatedItem() throws Exception {
         Item item = new Item(1L, "Test Item", "A test description", "NEW", "test@example.com");
@@ -107,6 +348,53 @@ public class ItemControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void updateItem_ShouldReturnConflict() throws Exception {
+        Item item = new Item(1L, "Test Item", "A test description", "NEW", "test@example.com");
+        item.setVersion(1L);
+        Mockito.when(itemService.updateItem(eq(1L), any(Item.class)))
+                .thenThrow(new ConflictException("Item 1 is at version 2, not 1."));
+
+        mockMvc.perform(put("/api/items/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void updateItem_ShouldUseIfMatchAsExpectedVersion() throws Exception {
+        Item item = new Item(1L, "Test Item", "A test description", "NEW", "test@example.com");
+        Item updated = new Item(1L, "Test Item", "A test description", "NEW", "test@example.com");
+        updated.setVersion(5L);
+        Mockito.when(itemService.updateItem(eq(1L), argThat(patch -> Long.valueOf(4L).equals(patch.getVersion()))))
+                .thenReturn(Optional.of(updated));
+
+        mockMvc.perform(put("/api/items/1")
+                        .header("If-Match", "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"5\""));
+    }
+
+    @Test
+    void updateItem_ShouldReturnPreconditionFailedForStaleIfMatch() throws Exception {
+        Item item = new Item(1L, "Test Item", "A test description", "NEW", "test@example.com");
+        Mockito.when(itemService.updateItem(eq(1L), any(Item.class)))
+                .thenThrow(new ConflictException("Item 1 is at version 5, not 4."));
+
+        mockMvc.perform(put("/api/items/1")
+                        .header("If-Match", "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/api/items/1")
+                        .header("If-Match", "W/\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void deleteItem_ShouldReturnNoContent() throws Exception {
         Mockito.doNothing().when(itemService).deleteById(1L);
@@ -129,21 +417,77 @@ public class ItemControllerTest {
         List<Item> processed = List.of(new Item(1L, "Test Item", "A test description", "PROCESSED", "test@example.com"));
 
         CompletableFuture<List<Item>> completedFuture = CompletableFuture.completedFuture(processed);
-        Mockito.when(itemService.processItemsAsync()).thenReturn(completedFuture);
+        Mockito.when(itemService.processItemsAsync(ProcessingMode.FULL)).thenReturn(completedFuture);
 
         mockMvc.perform(get("/api/items/process"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].status").value("PROCESSED"));
     }
 
+    @Test
+    void processItems_ShouldPassMode() throws Exception {
+        Mockito.when(itemService.processItemsAsync(ProcessingMode.INCREMENTAL))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        mockMvc.perform(get("/api/items/process?mode=INCREMENTAL"))
+                .andExpect(status().isNoContent());
+    }
+
     @Test
     void processItems_ShouldReturnError() throws Exception {
         CompletableFuture<List<Item>> failedFuture = new CompletableFuture<>();
         failedFuture.completeExceptionally(new NotFoundException("Processing failed"));
 
-        Mockito.when(itemService.processItemsAsync()).thenReturn(failedFuture);
+        Mockito.when(itemService.processItemsAsync(ProcessingMode.FULL)).thenReturn(failedFuture);
 
         mockMvc.perform(get("/api/items/process"))
                 .andExpect(status().is(500));
     }
+
+    @Test
+    void processItems_ShouldReturn503WhenCircuitIsOpen() throws Exception {
+        Mockito.when(itemService.processItemsAsync(ProcessingMode.FULL))
+                .thenReturn(CompletableFuture.failedFuture(new CircuitOpenException(Duration.ofSeconds(7))));
+
+        mockMvc.perform(get("/api/items/process"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "7"));
+    }
+
+    @Test
+    void summarizeProcessing_ShouldReturnIdsOnly() throws Exception {
+        Mockito.when(itemService.summarizeItemsAsync(ProcessingMode.FULL)).thenReturn(CompletableFuture.completedFuture(
+                new ProcessingSummary(2, 1, 1, new long[]{1L, 2L}, new long[]{4L}, new long[]{3L})));
+
+        mockMvc.perform(get("/api/items/process/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(2))
+                .andExpect(jsonPath("$.processedIds[1]").value(2))
+                .andExpect(jsonPath("$.rejectedIds[0]").value(4))
+                .andExpect(jsonPath("$.failedIds[0]").value(3));
+    }
+
+    @Test
+    void streamProcessedItems_ShouldWriteNdjsonPerChunk() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            ProcessingListener listener = invocation.getArgument(1);
+            listener.onChunk(List.of(new Item(1L, "Item1", "desc", "PROCESSED", "test@example.com")));
+            listener.onChunk(List.of(new Item(2L, "Item2", "desc", "PROCESSED", "test2@example.com")));
+            return null;
+        }).when(itemService).processItems(eq(ProcessingMode.FULL), any(ProcessingListener.class));
+
+        MvcResult result = mockMvc.perform(get("/api/items/process/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readValue(lines[0], Item.class).getId());
+        assertEquals(2L, objectMapper.readValue(lines[1], Item.class).getId());
+    }
 }
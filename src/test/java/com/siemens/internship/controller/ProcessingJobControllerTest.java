@@ -0,0 +1,81 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.service.ProcessingJob;
+import com.siemens.internship.service.ProcessingJobRegistry;
+import com.siemens.internship.service.ProcessingMode;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ProcessingJobController.class)
+public class ProcessingJobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProcessingJobRegistry jobRegistry;
+
+    @Test
+    void startJob_ShouldReturnAcceptedWithLocation() throws Exception {
+        ProcessingJob job = new ProcessingJob(10);
+        Mockito.when(jobRegistry.start(ProcessingMode.FULL)).thenReturn(job);
+
+        mockMvc.perform(post("/api/items/process/jobs"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/items/process/jobs/" + job.getId()))
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.total").value(10));
+    }
+
+    @Test
+    void getJob_ShouldReturnStatus() throws Exception {
+        ProcessingJob job = new ProcessingJob(0);
+        Mockito.when(jobRegistry.find(job.getId())).thenReturn(Optional.of(job));
+
+        mockMvc.perform(get("/api/items/process/jobs/" + job.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(job.getId().toString()));
+    }
+
+    @Test
+    void getJob_ShouldReturnNotFound() throws Exception {
+        Mockito.when(jobRegistry.find(Mockito.any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/items/process/jobs/" + UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void cancelJob_ShouldReturnAccepted() throws Exception {
+        ProcessingJob job = new ProcessingJob(5);
+        Mockito.when(jobRegistry.find(job.getId())).thenReturn(Optional.of(job));
+
+        mockMvc.perform(delete("/api/items/process/jobs/" + job.getId()))
+                .andExpect(status().isAccepted());
+    }
+
+    @Test
+    void cancelJob_ShouldReturnConflictWhenFinished() throws Exception {
+        UUID id = UUID.randomUUID();
+        ProcessingJob job = Mockito.mock(ProcessingJob.class);
+        Mockito.when(job.cancel()).thenReturn(false);
+        Mockito.when(job.status()).thenReturn(new ProcessingJob.Status(id, ProcessingJob.State.CANCELLED,
+                5, 2, 0, 0, 1.0, null, Instant.now(), Instant.now(), null));
+        Mockito.when(jobRegistry.find(id)).thenReturn(Optional.of(job));
+
+        mockMvc.perform(delete("/api/items/process/jobs/" + id))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.state").value("CANCELLED"));
+    }
+}
@@ -0,0 +1,187 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the custom and derived queries against the embedded H2 database.
+ */
+@DataJpaTest
+class ItemRepositoryTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        ids = itemRepository.saveAll(List.of(
+                new Item(null, "Item1", "desc", "NEW", "email1@test.com"),
+                new Item(null, "Item2", "desc", "NEW", "email2@test.com"),
+                new Item(null, "Item3", "desc", "NEW", "email3@test.com")
+        )).stream().map(Item::getId).toList();
+    }
+
+    @Test
+    void findByIdGreaterThan_returnsOrderedEntities() {
+        List<Item> page = itemRepository.findByIdGreaterThanOrderByIdAsc(Long.MIN_VALUE, Limit.of(2));
+
+        assertEquals(List.of("Item1", "Item2"), page.stream().map(Item::getName).toList());
+    }
+
+    @Test
+    void findProjectedAfter_selectsOnlyRequestedFields() {
+        List<Map<String, Object>> rows = itemRepository.findProjectedAfter(ItemFilter.NONE, ids.get(1), 10, List.of("id", "status"));
+
+        assertEquals(1, rows.size());
+        assertEquals(List.of("id", "status"), List.copyOf(rows.get(0).keySet()));
+        assertEquals(ids.get(2), rows.get(0).get("id"));
+        assertEquals("NEW", rows.get(0).get("status"));
+    }
+
+    @Test
+    void findProjectedAfter_appliesFilter() {
+        List<Map<String, Object>> rows = itemRepository.findProjectedAfter(
+                new ItemFilter(null, "email3@test.com"), Long.MIN_VALUE, 10, List.of("id"));
+
+        assertEquals(List.of(Map.of("id", ids.get(2))), rows);
+    }
+
+    @Test
+    void findByStatus_pagesThroughMatches() {
+        Item item = itemRepository.findById(ids.get(1)).orElseThrow();
+        item.setStatus("PROCESSED");
+        itemRepository.saveAndFlush(item);
+
+        List<Item> first = itemRepository.findByStatusAndIdGreaterThanOrderByStatusAscIdAsc("NEW", Long.MIN_VALUE, Limit.of(1));
+        List<Item> next = itemRepository.findByStatusAndIdGreaterThanOrderByStatusAscIdAsc("NEW", first.get(0).getId(), Limit.of(1));
+
+        assertEquals(List.of(ids.get(0)), first.stream().map(Item::getId).toList());
+        assertEquals(List.of(ids.get(2)), next.stream().map(Item::getId).toList());
+        assertEquals(List.of(ids.get(1)), itemRepository
+                .findByStatusAndEmailAndIdGreaterThanOrderByStatusAscIdAsc("PROCESSED", "email2@test.com", Long.MIN_VALUE, Limit.of(10))
+                .stream().map(Item::getId).toList());
+        assertEquals(List.of(new StatusCount("NEW", 2), new StatusCount("PROCESSED", 1)), itemRepository.countGroupedByStatus());
+        assertEquals(1, itemRepository.countByStatus("PROCESSED"));
+    }
+
+    @Test
+    void findForProcessing_loadsDetachedItemsInIdOrder() {
+        entityManager.flush();
+        List<Item> items = itemRepository.findForProcessing(List.of(ids.get(2), ids.get(0), -1L));
+
+        assertEquals(List.of(ids.get(0), ids.get(2)), items.stream().map(Item::getId).toList());
+        assertEquals("email1@test.com", items.get(0).getEmail());
+        assertNotNull(items.get(0).getVersion());
+        assertFalse(entityManager.getEntityManager().contains(items.get(0)));
+    }
+
+    @Test
+    void streamIds_returnsEveryIdInOrder() {
+        try (Stream<Long> stream = itemRepository.streamIds()) {
+            assertEquals(ids, stream.toList());
+        }
+    }
+
+    @Test
+    void deleteAllByIdInBatch_removesRows() {
+        itemRepository.deleteAllByIdInBatch(ids.subList(0, 2));
+
+        assertEquals(1, itemRepository.count());
+    }
+
+    @Test
+    void updateProcessed_writesFieldsAndBumpsVersion() {
+        List<Item> items = itemRepository.findAllById(ids.subList(0, 2));
+        entityManager.flush();
+        entityManager.clear();
+        items.forEach(item -> item.setStatus("PROCESSED"));
+
+        Set<Long> stale = itemRepository.updateProcessed(items, Instant.now());
+
+        assertTrue(stale.isEmpty());
+        Item written = itemRepository.findById(ids.get(0)).orElseThrow();
+        assertEquals("PROCESSED", written.getStatus());
+        assertEquals(1L, written.getVersion());
+        assertNotNull(written.getProcessedAt());
+    }
+
+    @Test
+    void updateProcessed_skipsConcurrentlyChangedRows() {
+        Item item = itemRepository.findById(ids.get(0)).orElseThrow();
+        entityManager.flush();
+        entityManager.clear();
+        Item stale = new Item(item.getId(), "stale", null, "PROCESSED", null);
+        stale.setVersion(item.getVersion() + 1);
+
+        assertEquals(Set.of(item.getId()), itemRepository.updateProcessed(List.of(stale), Instant.now()));
+        assertEquals("Item1", itemRepository.findById(ids.get(0)).orElseThrow().getName());
+    }
+
+    @Test
+    void updatePatched_mergesFieldsAndSkipsMissingRows() {
+        entityManager.flush();
+        entityManager.clear();
+        Instant stamp = Instant.parse("2030-01-01T00:00:00Z");
+
+        Set<Long> missing = itemRepository.updatePatched(Map.of(
+                ids.get(0), new Item(null, "renamed", null, "DONE", null),
+                -1L, new Item(null, "gone", null, null, null)), stamp);
+
+        assertEquals(Set.of(-1L), missing);
+        Item written = itemRepository.findById(ids.get(0)).orElseThrow();
+        assertEquals("renamed", written.getName());
+        assertEquals("DONE", written.getStatus());
+        assertEquals("desc", written.getDescription());
+        assertEquals("email1@test.com", written.getEmail());
+        assertEquals(1L, written.getVersion());
+        assertEquals(stamp, written.getUpdatedAt());
+    }
+
+    @Test
+    void updateProcessed_handlesRowsInsertedWithoutAVersion() {
+        entityManager.getEntityManager()
+                .createNativeQuery("INSERT INTO item (id, name, status) VALUES (-5, 'Imported', 'NEW')")
+                .executeUpdate();
+        entityManager.clear();
+        Item imported = itemRepository.findById(-5L).orElseThrow();
+        assertEquals(0L, imported.getVersion());
+
+        imported.setStatus("PROCESSED");
+        assertEquals(Set.of(), itemRepository.updateProcessed(List.of(imported), Instant.now()));
+        entityManager.clear();
+        assertEquals("PROCESSED", itemRepository.findById(-5L).orElseThrow().getStatus());
+    }
+
+    @Test
+    void findChangedAfter_skipsProcessedItemsAndKeepsUpdatedAt() {
+        Item item = itemRepository.findById(ids.get(0)).orElseThrow();
+        Instant written = item.getUpdatedAt();
+        entityManager.flush();
+        itemRepository.updateProcessed(List.of(item), written.plusSeconds(1));
+        entityManager.clear();
+
+        List<ItemChange> changes = itemRepository.findChangedAfter(Instant.EPOCH, Long.MIN_VALUE, PageRequest.ofSize(10));
+
+        assertEquals(ids.subList(1, 3), changes.stream().map(ItemChange::id).toList());
+        assertEquals(written, itemRepository.findById(ids.get(0)).orElseThrow().getUpdatedAt());
+    }
+}
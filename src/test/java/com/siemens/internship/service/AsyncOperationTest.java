@@ -1,23 +1,69 @@
 package com.siemens.internship.service;
 
+import com.siemens.internship.config.ProcessingProperties;
+import com.siemens.internship.config.WriteBehindProperties;
+import com.siemens.internship.model.DeadLetter;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemEvent;
+import com.siemens.internship.model.ProcessingCheckpoint;
+import com.siemens.internship.model.ProcessingChunk;
+import com.siemens.internship.model.ProcessingRun;
+import com.siemens.internship.repository.DeadLetterRepository;
 import com.siemens.internship.repository.ItemRepository;
-import com.siemens.internship.service.ItemService;
+import com.siemens.internship.repository.ProcessingCheckpointRepository;
+import com.siemens.internship.service.pipeline.EmailProcessor;
+import com.siemens.internship.service.pipeline.EnrichmentProcessor;
+import com.siemens.internship.service.pipeline.ItemProcessor;
+import com.siemens.internship.service.pipeline.ProcessingPipeline;
+import com.siemens.internship.service.pipeline.StatusTransitionProcessor;
+import com.siemens.internship.service.resilience.DatabaseGuard;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.mockito.stubbing.OngoingStubbing;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -30,9 +76,48 @@ class AsyncOperationTest {
 	@Mock
 	private ItemRepository itemRepository;
 
+	@Mock
+	private CacheManager cacheManager;
+
+	@Mock
+	private ProcessingMetrics processingMetrics;
+
+	@Mock
+	private ProcessingCheckpointRepository checkpointRepository;
+
+	@Mock
+	private ProcessingLedger ledger;
+
+	@Mock
+	private DeadLetterRepository deadLetterRepository;
+
+	@Mock
+	private ItemOutbox outbox;
+
+	@Spy
+	private TransactionOperations transactions = TransactionOperations.withoutTransaction();
+
+	@Spy
+	private ProcessingProperties processingProperties = new ProcessingProperties();
+
+	@Spy
+	private WriteBehindProperties writeBehindProperties = new WriteBehindProperties();
+
 	@BeforeEach
 	void setup() {
 		MockitoAnnotations.openMocks(this);
+		processingProperties.getRetry().setInitialBackoff(Duration.ofMillis(1));
+		ReflectionTestUtils.setField(itemService, "guard", new DatabaseGuard(processingProperties, processingMetrics));
+		Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+		ReflectionTestUtils.setField(itemService, "pipeline", new ProcessingPipeline(
+				List.of(new EnrichmentProcessor(), new EmailProcessor(validator), new StatusTransitionProcessor()),
+				processingProperties, processingMetrics));
+		itemService.startExecutor();
+	}
+
+	@AfterEach
+	void tearDown() {
+		itemService.stopExecutor();
 	}
 
 	@Test
@@ -42,31 +127,451 @@ class AsyncOperationTest {
 		Item item1 = new Item(1L, "Item1", "desc", "NEW", "email@test.com");
 		Item item2 = new Item(2L, "Item2", "desc", "NEW", "email2@test.com");
 
-		when(itemRepository.findAllIds()).thenReturn(itemIds);
-		when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
-		when(itemRepository.findById(2L)).thenReturn(Optional.of(item2));
-		when(itemRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		ProcessingRun run = planned(itemIds);
+		when(itemRepository.findForProcessing(itemIds)).thenReturn(List.of(item1, item2));
 
 		CompletableFuture<List<Item>> future = itemService.processItemsAsync();
 		List<Item> result = future.get();
 
 		assertEquals(2, result.size());
 		assertTrue(result.stream().allMatch(item -> item.getStatus().equals("PROCESSED")));
+		verify(itemRepository).updateProcessed(eq(List.of(item1, item2)), any());
+		verify(outbox).append(ItemEvent.Type.PROCESSED, List.of(item1, item2));
+		verify(ledger).plan(any(), eq(ProcessingMode.FULL), isNull(), any());
+		verify(ledger).completed(1L, 2);
+		verify(ledger).finish(run.getId(), ProcessingRun.State.COMPLETED);
+		verify(processingMetrics).chunkProcessed(anyLong(), eq(2), eq(0));
+		verify(processingMetrics).runFinished(anyLong(), eq("success"));
+		verify(checkpointRepository).advance(eq(ItemService.CHECKPOINT), any(Instant.class));
+	}
+
+	@Test
+	void testProcessItemsAsync_concurrentRequestAttachesToRunInFlight() throws Exception {
+		List<Long> itemIds = List.of(1L, 2L);
+		planned(itemIds);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(itemRepository.findForProcessing(itemIds)).thenAnswer(invocation -> {
+			loading.countDown();
+			release.await();
+			return List.of(new Item(1L, "Item1", "desc", "NEW", "email@test.com"),
+					new Item(2L, "Item2", "desc", "NEW", "email2@test.com"));
+		});
+
+		// Called on threads of their own, as the @Async proxy would; the first one runs until released.
+		CompletableFuture<List<Item>> first = CompletableFuture.supplyAsync(() -> itemService.processItemsAsync(ProcessingMode.FULL)).thenCompose(f -> f);
+		assertTrue(loading.await(5, TimeUnit.SECONDS));
+		CompletableFuture<List<Item>> second = itemService.processItemsAsync(ProcessingMode.FULL);
+		release.countDown();
+
+		assertEquals(2, first.get(5, TimeUnit.SECONDS).size());
+		assertEquals(first.get(), second.get(5, TimeUnit.SECONDS));
+		verify(ledger, times(1)).plan(any(), any(), any(), any());
+		verify(itemRepository, times(1)).findForProcessing(itemIds);
+	}
+
+	@Test
+	void testProcessItems_incrementalScansChangesSinceWatermark() throws Exception {
+		Instant watermark = Instant.parse("2025-01-01T10:00:00Z");
+		Instant scanStart = watermark.minus(processingProperties.getWatermarkLag());
+		when(checkpointRepository.findById(ItemService.CHECKPOINT))
+				.thenReturn(Optional.of(new ProcessingCheckpoint(ItemService.CHECKPOINT, watermark)));
+		planned(List.of(5L));
+		when(itemRepository.findForProcessing(List.of(5L))).thenReturn(List.of(
+				new Item(5L, "Item5", "desc", "NEW", "email5@test.com")));
+		when(checkpointRepository.advance(any(), any())).thenReturn(1);
+
+		List<Item> result = itemService.processItemsAsync(ProcessingMode.INCREMENTAL).get();
+
+		assertEquals(List.of(5L), result.stream().map(Item::getId).toList());
+		assertNotNull(result.get(0).getProcessedAt());
+		verify(ledger).plan(any(), eq(ProcessingMode.INCREMENTAL), eq(scanStart), any());
+		verify(checkpointRepository).advance(eq(ItemService.CHECKPOINT), any(Instant.class));
+	}
+
+	@Test
+	void testProcessItemsAsync_virtualThreads() throws Exception {
+		itemService.stopExecutor();
+		processingProperties.setExecutionMode(ProcessingProperties.ExecutionMode.VIRTUAL);
+		itemService.startExecutor();
+
+		List<Long> itemIds = List.of(1L);
+		planned(itemIds);
+		when(itemRepository.findForProcessing(itemIds)).thenReturn(List.of(new Item(1L, "Item1", "desc", "NEW", "email@test.com")));
+
+		List<Item> result = itemService.processItemsAsync().get();
+
+		assertEquals(1, result.size());
+		assertEquals("PROCESSED", result.get(0).getStatus());
 	}
 
 	@Test
 	void testProcessItemsAsync_itemNotFound() throws Exception {
 
 		List<Long> itemIds = List.of(1L, 2L);
-		when(itemRepository.findAllIds()).thenReturn(itemIds);
-		when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item()));
-		when(itemRepository.findById(2L)).thenReturn(Optional.empty());
-		when(itemRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		planned(itemIds);
+		when(itemRepository.findForProcessing(itemIds)).thenReturn(List.of(new Item(1L, "Item1", "desc", "NEW", "email@test.com")));
 
 		CompletableFuture<List<Item>> future = itemService.processItemsAsync();
 		List<Item> result = future.get();
 
 		assertEquals(1, result.size());
+		verify(itemRepository).updateProcessed(argThat(items -> items.size() == 1), any());
+	}
+
+	@Test
+	void testProcessItemsAsync_walksChunks() throws Exception {
+		planned(List.of(1L, 2L), List.of(3L));
+		when(itemRepository.findForProcessing(List.of(1L, 2L))).thenReturn(List.of(
+				new Item(1L, "Item1", "desc", "NEW", "email@test.com"),
+				new Item(2L, "Item2", "desc", "NEW", "email2@test.com")));
+		when(itemRepository.findForProcessing(List.of(3L))).thenReturn(List.of(
+				new Item(3L, "Item3", "desc", "NEW", "email3@test.com")));
+
+		List<Item> result = itemService.processItemsAsync().get();
+
+		assertEquals(3, result.size());
+		verify(itemRepository, times(2)).updateProcessed(anyList(), any());
+		verify(ledger, times(3)).claim(any());
+		verify(ledger).completed(1L, 2);
+		verify(ledger).completed(2L, 1);
+	}
+
+	@Test
+	void testProcessItemsAsync_failedChunkIsSkipped() throws Exception {
+		planned(List.of(1L), List.of(2L));
+		when(ledger.hasFailedChunks(any())).thenReturn(true);
+		when(itemRepository.findForProcessing(List.of(1L))).thenThrow(new IllegalStateException("boom"));
+		when(itemRepository.findForProcessing(List.of(2L))).thenReturn(List.of(
+				new Item(2L, "Item2", "desc", "NEW", "email2@test.com")));
+
+		List<Item> result = itemService.processItemsAsync().get();
+
+		assertEquals(1, result.size());
+		assertEquals(2L, result.get(0).getId());
+		verify(processingMetrics).chunkFailed(eq(1), any(IllegalStateException.class));
+		verify(ledger).failed(eq(1L), any(IllegalStateException.class));
+		verify(checkpointRepository, never()).advance(any(), any());
+	}
+
+	@Test
+	void testSummarizeItemsAsync_keepsOnlyIds() throws Exception {
+		planned(List.of(1L), List.of(2L, 3L));
+		when(itemRepository.findForProcessing(List.of(1L))).thenThrow(new IllegalStateException("boom"));
+		when(itemRepository.findForProcessing(List.of(2L, 3L))).thenReturn(List.of(
+				new Item(2L, "Item2", "desc", "NEW", "email2@test.com"),
+				new Item(3L, "Item3", "desc", "NEW", "email3@test.com")));
+
+		ProcessingSummary summary = itemService.summarizeItemsAsync(ProcessingMode.FULL).get();
+
+		assertEquals(2, summary.processed());
+		assertEquals(1, summary.failed());
+		assertArrayEquals(new long[]{2L, 3L}, summary.processedIds());
+		assertArrayEquals(new long[]{1L}, summary.failedIds());
+	}
+
+	@Test
+	void testProcessItemsAsync_pipelineNormalizesAndRejects() throws Exception {
+		processingProperties.getStages().put("email", stage(2, 1));
+
+		List<Long> itemIds = List.of(1L, 2L);
+		planned(itemIds);
+		when(itemRepository.findForProcessing(itemIds)).thenReturn(List.of(
+				new Item(1L, " Item1 ", null, "NEW", " Luca.C@Gmail.COM "),
+				new Item(2L, "Item2", "desc", "NEW", "not-an-email")));
+
+		List<Item> result = itemService.processItemsAsync().get();
+
+		Item normalized = result.stream().filter(item -> item.getId() == 1L).findFirst().orElseThrow();
+		assertEquals("Item1", normalized.getName());
+		assertEquals("Item1", normalized.getDescription());
+		assertEquals("Luca.C@gmail.com", normalized.getEmail());
+		assertEquals("PROCESSED", normalized.getStatus());
+		// The rejected item is written with its status, but it isn't one of the processed items.
+		assertEquals(List.of(1L), result.stream().map(Item::getId).toList());
+		verify(itemRepository).updateProcessed(argThat(items -> items.size() == 2
+				&& items.get(1).getStatus().equals("REJECTED")), any());
+	}
+
+	@Test
+	void testProcessItemsAsync_rejectedItemsAreReportedApartFromProcessedOnes() throws Exception {
+		planned(List.of(1L, 2L, 3L));
+		when(itemRepository.findForProcessing(List.of(1L, 2L, 3L))).thenReturn(List.of(
+				new Item(1L, "Item1", "desc", "NEW", "email1@test.com"),
+				new Item(2L, "Item2", "desc", "NEW", "not-an-email"),
+				new Item(3L, "Item3", "desc", "NEW", "email3@test.com")));
+
+		ProcessingSummary summary = itemService.summarizeItemsAsync(ProcessingMode.FULL).get();
+
+		assertEquals(2, summary.processed());
+		assertEquals(1, summary.rejected());
+		assertEquals(0, summary.failed());
+		assertArrayEquals(new long[]{1L, 3L}, summary.processedIds());
+		assertArrayEquals(new long[]{2L}, summary.rejectedIds());
+		verify(processingMetrics).chunkProcessed(anyLong(), eq(2), eq(1));
+	}
+
+	@Test
+	void testProcessItemsAsync_jobCountsRejectedItemsApart() throws Exception {
+		planned(List.of(1L, 2L));
+		when(itemRepository.findForProcessing(List.of(1L, 2L))).thenReturn(List.of(
+				new Item(1L, "Item1", "desc", "NEW", "email1@test.com"),
+				new Item(2L, "Item2", "desc", "NEW", "not-an-email")));
+
+		ProcessingJob job = new ProcessingJob(2);
+		itemService.processItemsAsync(job).get();
+
+		assertEquals(1, job.status().processed());
+		assertEquals(1, job.status().rejected());
+		assertEquals(0, job.status().failed());
+	}
+
+	@Test
+	void testProcessItemsAsync_failingStageFailsOnlyItsChunk() throws Exception {
+		ReflectionTestUtils.setField(itemService, "pipeline", new ProcessingPipeline(List.of(ItemProcessor.named("stub", AsyncOperationTest::failOnBoom)),
+				processingProperties, processingMetrics));
+		planned(List.of(1L), List.of(2L));
+		when(itemRepository.findForProcessing(List.of(1L))).thenReturn(List.of(new Item(1L, "boom", "desc", "NEW", null)));
+		when(itemRepository.findForProcessing(List.of(2L))).thenReturn(List.of(new Item(2L, "Item2", "desc", "NEW", null)));
+
+		List<Item> result = itemService.processItemsAsync().get();
+
+		assertEquals(List.of(2L), result.stream().map(Item::getId).toList());
+		verify(processingMetrics).itemDeadLettered("stub");
+		verify(deadLetterRepository).save(argThat(letter -> letter.getItemId() == 1L && letter.getStage().equals("stub")
+				&& letter.getFailures() == 1));
+		verify(processingMetrics, never()).chunkFailed(anyInt(), any());
+		verify(itemRepository).updateProcessed(argThat(items -> items.get(0).getId() == 2L), any());
+	}
+
+	@Test
+	void testProcessItemsAsync_poisonItemIsIsolatedFromItsChunk() throws Exception {
+		ReflectionTestUtils.setField(itemService, "pipeline", new ProcessingPipeline(List.of(ItemProcessor.named("stub", AsyncOperationTest::failOnBoom)),
+				processingProperties, processingMetrics));
+		List<Long> itemIds = List.of(1L, 2L, 3L);
+		planned(itemIds);
+		when(itemRepository.findForProcessing(itemIds)).thenReturn(List.of(new Item(1L, "Item1", "desc", "NEW", null),
+				new Item(2L, "boom", "desc", "NEW", null), new Item(3L, "Item3", "desc", "NEW", null)));
+
+		ProcessingJob job = new ProcessingJob(3);
+		itemService.processItemsAsync(job).get();
+
+		assertEquals(2, job.status().processed());
+		assertEquals(1, job.status().failed());
+		verify(deadLetterRepository).save(argThat(letter -> letter.getItemId() == 2L));
+		verify(itemRepository).updateProcessed(argThat(items -> items.size() == 2), any());
+		verify(ledger).completed(1L, 2);
+	}
+
+	@Test
+	void testProcessItemsAsync_transientWriteFailureIsRetried() throws Exception {
+		List<Long> itemIds = List.of(1L);
+		planned(itemIds);
+		when(itemRepository.findForProcessing(itemIds)).thenReturn(List.of(new Item(1L, "Item1", "desc", "NEW", null)));
+		when(itemRepository.updateProcessed(anyList(), any()))
+				.thenThrow(new QueryTimeoutException("lock timeout"))
+				.thenReturn(Set.of());
+
+		List<Item> result = itemService.processItemsAsync().get();
+
+		assertEquals(1, result.size());
+		verify(itemRepository, times(2)).updateProcessed(anyList(), any());
+		verify(processingMetrics).retried(any(QueryTimeoutException.class));
+		verify(deadLetterRepository, never()).save(any());
+	}
+
+	@Test
+	void testProcessItemsAsync_transientFailureOutlastingRetriesFailsChunk() throws Exception {
+		processingProperties.getRetry().setMaxAttempts(2);
+		List<Long> itemIds = List.of(1L, 2L);
+		planned(itemIds);
+		when(itemRepository.findForProcessing(itemIds)).thenReturn(List.of(new Item(1L, "Item1", "desc", "NEW", null),
+				new Item(2L, "Item2", "desc", "NEW", null)));
+		when(itemRepository.updateProcessed(anyList(), any())).thenThrow(new QueryTimeoutException("lock timeout"));
+
+		List<Item> result = itemService.processItemsAsync().get();
+
+		assertTrue(result.isEmpty());
+		// No item-by-item isolation for transient failures: two attempts on the chunk, then the chunk fails.
+		verify(itemRepository, times(2)).updateProcessed(anyList(), any());
+		verify(ledger).failed(eq(1L), any(QueryTimeoutException.class));
+		verify(deadLetterRepository, never()).save(any());
+	}
+
+	@Test
+	void testReplayDeadLetters_processesAndClearsThem() throws Exception {
+		DeadLetter letter = new DeadLetter(3L, Instant.now());
+		when(deadLetterRepository.findAllByOrderByLastFailedAtAsc(any(Limit.class))).thenReturn(List.of(letter));
+		when(itemRepository.findForProcessing(List.of(3L))).thenReturn(List.of(new Item(3L, "Item3", "desc", "NEW", null)));
+
+		DeadLetterReplay replay = itemService.replayDeadLetters(null);
+
+		assertEquals(List.of(3L), replay.replayed());
+		assertTrue(replay.failed().isEmpty());
+		verify(deadLetterRepository).deleteAllByIdInBatch(List.of(3L));
+	}
+
+	@Test
+	void testReplayDeadLetters_keepsItemsThatFailAgain() throws Exception {
+		ReflectionTestUtils.setField(itemService, "pipeline", new ProcessingPipeline(List.of(ItemProcessor.named("stub", AsyncOperationTest::failOnBoom)),
+				processingProperties, processingMetrics));
+		DeadLetter letter = new DeadLetter(3L, Instant.now());
+		letter.failed(UUID.randomUUID(), "stub", new IllegalStateException("boom"), Instant.now());
+		when(deadLetterRepository.findById(3L)).thenReturn(Optional.of(letter));
+		when(itemRepository.findForProcessing(List.of(3L, 4L))).thenReturn(List.of(new Item(3L, "boom", "desc", "NEW", null)));
+
+		DeadLetterReplay replay = itemService.replayDeadLetters(List.of(3L, 4L));
+
+		assertEquals(List.of(3L), replay.failed());
+		assertEquals(List.of(4L), replay.missing());
+		assertEquals(2, letter.getFailures());
+		verify(deadLetterRepository).deleteAllByIdInBatch(List.of(4L));
+	}
+
+	/**
+	 * Stubs the ledger with a RUNNING run whose chunks hold the given ids, handed out by claim() in order. Chunk ids
+	 * are 1, 2, ...; the run ends cleanly once all of them are claimed.
+	 */
+	@SafeVarargs
+	private ProcessingRun planned(List<Long>... chunkIds) {
+		ProcessingRun run = new ProcessingRun(UUID.randomUUID(), ProcessingMode.FULL, null, Instant.now());
+		when(ledger.plan(any(), any(), any(), any())).thenReturn(run);
+
+		List<ProcessingChunk> chunks = new ArrayList<>();
+		for (List<Long> ids : chunkIds) {
+			ProcessingChunk chunk = new ProcessingChunk(run.getId(), ids.get(0), ids.get(ids.size() - 1));
+			chunk.setId(chunks.size() + 1L);
+			when(ledger.idsOf(any(), same(chunk))).thenReturn(ids);
+			chunks.add(chunk);
+		}
+		OngoingStubbing<Optional<ProcessingChunk>> claims = when(ledger.claim(any()));
+		for (ProcessingChunk chunk : chunks) claims = claims.thenReturn(Optional.of(chunk));
+		claims.thenReturn(Optional.empty());
+		when(ledger.finish(any(), any())).thenReturn(true);
+		return run;
+	}
+
+	private static ProcessingProperties.Stage stage(int parallelism, int batchSize) {
+		ProcessingProperties.Stage stage = new ProcessingProperties.Stage();
+		stage.setParallelism(parallelism);
+		stage.setBatchSize(batchSize);
+		return stage;
+	}
+
+	private static List<Item> failOnBoom(List<Item> items) {
+		if (items.stream().anyMatch(item -> item.getName().equals("boom"))) throw new IllegalStateException("boom");
+		return items;
+	}
+
+	@Test
+	void testProcessItems_sinkFailureAbortsRun() {
+		itemService.stopExecutor();
+		processingProperties.setParallelism(1);
+		itemService.startExecutor();
+
+		ProcessingRun run = planned(List.of(1L), List.of(2L));
+		when(itemRepository.findForProcessing(List.of(1L))).thenReturn(List.of(
+				new Item(1L, "Item1", "desc", "NEW", "email@test.com")));
+
+		assertThrows(IllegalStateException.class, () -> itemService.processItems(chunk -> {
+			throw new IllegalStateException("client went away");
+		}));
+		verify(itemRepository, never()).findForProcessing(List.of(2L));
+		verify(ledger).finish(run.getId(), ProcessingRun.State.FAILED);
+	}
+
+	@Test
+	void testProcessItems_jobCountsAndCancels() throws Exception {
+		itemService.stopExecutor();
+		processingProperties.setParallelism(1);
+		itemService.startExecutor();
+
+		ProcessingRun run = planned(List.of(1L), List.of(2L));
+		when(itemRepository.findForProcessing(List.of(1L))).thenReturn(List.of(
+				new Item(1L, "Item1", "desc", "NEW", "email@test.com")));
+
+		ProcessingJob job = new ProcessingJob(2) {
+			@Override
+			public void onChunk(List<Item> items) {
+				super.onChunk(items);
+				cancel();
+			}
+		};
+		itemService.processItemsAsync(job).whenComplete((ignored, failure) -> job.finish(failure)).get();
+
+		ProcessingJob.Status status = job.status();
+		assertEquals(ProcessingJob.State.CANCELLED, status.state());
+		assertEquals(1, status.processed());
+		verify(itemRepository, never()).findForProcessing(List.of(2L));
+		verify(ledger).finish(run.getId(), ProcessingRun.State.CANCELLED);
+		verify(checkpointRepository, never()).advance(any(), any());
+	}
+
+	@Test
+	void testProcessItemsAsync_readFailurePropagates() {
+		when(ledger.plan(any(), any(), any(), any())).thenThrow(new IllegalStateException("db down"));
+
+		CompletableFuture<List<Item>> future = itemService.processItemsAsync();
+
+		assertThrows(ExecutionException.class, future::get);
+		verify(processingMetrics).runFinished(anyLong(), eq("failure"));
+	}
+
+	@Test
+	void testUpdateItem_writeBehindServesReadsAndFlushesOneMergedRow() throws Exception {
+		enableWriteBehind();
+		Item row = new Item(1L, "Item1", "desc", "NEW", "email@test.com");
+		row.setVersion(0L);
+		when(itemRepository.findById(1L)).thenReturn(Optional.of(row));
+		when(itemRepository.updatePatched(any(), any())).thenReturn(Set.of());
+		when(itemRepository.findForProcessing(List.of(1L))).thenReturn(List.of(row));
+
+		itemService.updateItem(1L, new Item(null, "renamed", null, null, null));
+		Item answer = itemService.updateItem(1L, new Item(null, null, null, "DONE", null)).orElseThrow();
+
+		assertEquals("renamed", answer.getName());
+		assertEquals("DONE", answer.getStatus());
+		Item read = itemService.findById(1L).orElseThrow();
+		assertEquals("renamed", read.getName());
+		assertEquals("DONE", read.getStatus());
+		assertEquals("Item1", row.getName());
+		assertTrue(itemService.hasPendingUpdate(1L));
+		verify(itemRepository, never()).save(any());
+
+		itemService.stopExecutor();
+		assertFalse(itemService.hasPendingUpdate(1L));
+
+		verify(itemRepository, times(1)).updatePatched(argThat(patches -> {
+			Item written = patches.get(1L);
+			return patches.size() == 1 && written.getName().equals("renamed") && written.getStatus().equals("DONE");
+		}), any());
+		verify(outbox).append(ItemEvent.Type.UPDATED, List.of(row));
+	}
+
+	@Test
+	void testUpdateItem_versionedUpdateWritesBufferedFieldsUnderneath() throws Exception {
+		enableWriteBehind();
+		Item row = new Item(1L, "Item1", "desc", "NEW", "email@test.com");
+		row.setVersion(0L);
+		when(itemRepository.findById(1L)).thenReturn(Optional.of(row));
+		when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		itemService.updateItem(1L, new Item(null, "renamed", null, null, null));
+		Item patch = new Item(null, null, null, "DONE", null);
+		patch.setVersion(0L);
+		Item saved = itemService.updateItem(1L, patch).orElseThrow();
+
+		assertEquals("renamed", saved.getName());
+		assertEquals("DONE", saved.getStatus());
+		itemService.stopExecutor();
+		verify(itemRepository, never()).updatePatched(any(), any());
+	}
+
+	private void enableWriteBehind() {
+		itemService.stopExecutor();
+		writeBehindProperties.setEnabled(true);
+		writeBehindProperties.setFlushInterval(Duration.ofHours(1));
+		itemService.startExecutor();
 	}
 
 }
@@ -0,0 +1,145 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.exception.ConflictException;
+import com.siemens.internship.exception.NotFoundException;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs against the real Spring proxies, since the caching annotations on ItemService are only applied there.
+ */
+@SpringBootTest
+class ItemCacheTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private ItemRepository itemRepository;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(ItemService.ITEMS_CACHE).clear();
+    }
+
+    @Test
+    void findById_isServedFromCacheAfterFirstRead() throws NotFoundException {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item(1L, "Item1", "desc", "NEW", "email@test.com")));
+
+        long hitsBefore = itemService.cacheStats().orElseThrow().hits();
+
+        itemService.findById(1L);
+        Optional<Item> second = itemService.findById(1L);
+
+        assertEquals("Item1", second.orElseThrow().getName());
+        verify(itemRepository, times(1)).findById(1L);
+        assertEquals(hitsBefore + 1, itemService.cacheStats().orElseThrow().hits());
+    }
+
+    @Test
+    void findById_notFoundIsNotCached() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> itemService.findById(1L));
+        assertThrows(NotFoundException.class, () -> itemService.findById(1L));
+        verify(itemRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void updateItem_writesThrough() throws NotFoundException, ConflictException {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item(1L, "old", "desc", "NEW", "email@test.com")));
+        when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        itemService.findById(1L);
+
+        itemService.updateItem(1L, new Item(null, "new", null, null, null));
+
+        assertEquals("new", itemService.findById(1L).orElseThrow().getName());
+        verify(itemRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void updateItem_isNotOverwrittenByAMissThatReadTheRowBeforeIt() throws Exception {
+        Item stale = new Item(1L, "old", "desc", "NEW", "email@test.com");
+        stale.setVersion(1L);
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        when(itemRepository.findById(1L)).thenAnswer(invocation -> {
+            if (reads.getAndIncrement() > 0) {
+                Item current = new Item(1L, "old", "desc", "NEW", "email@test.com");
+                current.setVersion(1L);
+                return Optional.of(current);
+            }
+            reading.countDown();
+            release.await();
+            return Optional.of(stale);
+        });
+        when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> {
+            Item saved = invocation.getArgument(0);
+            saved.setVersion(saved.getVersion() + 1);
+            return saved;
+        });
+
+        // The miss reads version 1, the update commits version 2 and caches it, then the miss puts what it read.
+        CompletableFuture<Optional<Item>> miss = CompletableFuture.supplyAsync(() -> {
+            try {
+                return itemService.findById(1L);
+            } catch (NotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        itemService.updateItem(1L, new Item(null, "new", null, null, null));
+        release.countDown();
+        miss.get(5, TimeUnit.SECONDS);
+
+        Item cached = itemService.findById(1L).orElseThrow();
+        assertEquals("new", cached.getName());
+        assertEquals(2L, cached.getVersion());
+    }
+
+    @Test
+    void deleteById_evicts() throws NotFoundException {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item(1L, "Item1", "desc", "NEW", "email@test.com")));
+        itemService.findById(1L);
+
+        itemService.deleteById(1L);
+
+        assertNull(cacheManager.getCache(ItemService.ITEMS_CACHE).get(1L));
+    }
+
+    @Test
+    void processing_evictsProcessedItems() throws Exception {
+        Item item = new Item(1L, "Item1", "desc", "NEW", "email@test.com");
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(itemRepository.streamIds()).thenReturn(Stream.of(1L));
+        when(itemRepository.findIdsBetween(1L, 1L)).thenReturn(List.of(1L));
+        when(itemRepository.findForProcessing(List.of(1L))).thenReturn(List.of(item));
+        itemService.findById(1L);
+
+        itemService.processItemsAsync().get();
+
+        assertNull(cacheManager.getCache(ItemService.ITEMS_CACHE).get(1L));
+    }
+}
@@ -0,0 +1,122 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.ProcessingConfig;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemEvent;
+import com.siemens.internship.repository.ItemEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs outbox and dispatcher against the embedded H2 database and without a test transaction: subscribers read on
+ * threads of their own and only see committed events.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ItemOutbox.class, ItemEventDispatcher.class, ItemChangeCounter.class, ProcessingConfig.class})
+// Rounds are driven by the tests.
+@TestPropertySource(properties = "items.events.poll-interval=PT1H")
+class ItemEventDispatcherTest {
+
+    @Autowired
+    private ItemOutbox outbox;
+
+    @Autowired
+    private ItemEventDispatcher dispatcher;
+
+    @Autowired
+    private ItemEventRepository eventRepository;
+
+    @Autowired
+    private TransactionTemplate transactions;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository.deleteAll();
+    }
+
+    @Test
+    void append_requiresTransaction() {
+        assertThrows(IllegalTransactionStateException.class,
+                () -> outbox.append(ItemEvent.Type.CREATED, List.of(item(1L))));
+    }
+
+    @Test
+    void dispatch_numbersCommittedEventsInOrder() {
+        long head = head();
+        append(ItemEvent.Type.CREATED, 1L, 2L);
+        append(ItemEvent.Type.UPDATED, 1L);
+
+        dispatcher.dispatch();
+
+        List<ItemEvent> events = dispatcher.read(head, 10);
+        assertEquals(List.of(head + 1, head + 2, head + 3), events.stream().map(ItemEvent::getPosition).toList());
+        assertEquals(List.of(1L, 2L, 1L), events.stream().map(ItemEvent::getItemId).toList());
+        assertEquals(ItemEvent.Type.UPDATED, events.get(2).getType());
+        assertEquals(List.of(), dispatcher.read(head + 3, 10));
+    }
+
+    @Test
+    void rolledBackChangesLeaveNoEvents() {
+        long head = head();
+        transactions.executeWithoutResult(status -> {
+            outbox.deleted(List.of(7L));
+            status.setRollbackOnly();
+        });
+
+        dispatcher.dispatch();
+
+        assertEquals(List.of(), dispatcher.read(head, 10));
+    }
+
+    @Test
+    void poll_waitsForTheNextDispatch() throws Exception {
+        long head = head();
+        CompletableFuture<List<ItemEvent>> poll = dispatcher.poll(head, 10, Duration.ofSeconds(10));
+        assertFalse(poll.isDone());
+
+        append(ItemEvent.Type.PROCESSED, 3L);
+        dispatcher.dispatch();
+
+        List<ItemEvent> events = poll.get(5, TimeUnit.SECONDS);
+        assertEquals(1, events.size());
+        assertEquals("PROCESSED", events.get(0).getStatus());
+    }
+
+    @Test
+    void poll_answersEmptyAfterWait() throws Exception {
+        assertEquals(List.of(), dispatcher.poll(head(), 10, Duration.ofMillis(50)).get(5, TimeUnit.SECONDS));
+    }
+
+    private void append(ItemEvent.Type type, Long... ids) {
+        transactions.executeWithoutResult(status ->
+                outbox.append(type, Arrays.stream(ids).map(ItemEventDispatcherTest::item).toList()));
+    }
+
+    private static Item item(Long id) {
+        return new Item(id, "Item" + id, "desc", "PROCESSED", "email@test.com");
+    }
+
+    // Positions are never reused, also across tests that deleted the rows.
+    private long head() {
+        dispatcher.dispatch();
+        Long head = eventRepository.findHead();
+        return head == null ? 0 : head;
+    }
+}
@@ -0,0 +1,101 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * The item cache with the write buffer on, against the real Spring proxies. Flushes are driven by the test.
+ */
+@SpringBootTest(properties = {
+        "items.write-behind.enabled=true",
+        "items.write-behind.flush-interval=PT1H"
+})
+class ItemWriteBehindCacheTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private ItemRepository itemRepository;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(ItemService.ITEMS_CACHE).clear();
+    }
+
+    @Test
+    void findById_readInterleavedWithAFlushDoesNotCacheTheBufferedViewUnderTheOldVersion() throws Exception {
+        Item row = item("old", 1L);
+        Item flushed = item("new", 2L);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(row));
+        when(itemRepository.updatePatched(any(), any())).thenReturn(Set.of());
+        when(itemRepository.findForProcessing(List.of(1L))).thenReturn(List.of(flushed));
+
+        itemService.updateItem(1L, new Item(null, "new", null, null, null));
+
+        // The next read sees the update pending, then stays in the repository until the flush is done.
+        doAnswer(invocation -> {
+            entered.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return Optional.of(row);
+        }).when(itemRepository).findById(1L);
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        Item view;
+        try {
+            Future<Item> read = reader.submit(() -> itemService.findById(1L).orElseThrow());
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            writeBuffer().flush();
+            release.countDown();
+            view = read.get(5, TimeUnit.SECONDS);
+        } finally {
+            reader.shutdownNow();
+        }
+
+        assertEquals("new", view.getName());
+        assertEquals(1L, view.getVersion());
+        Cache.ValueWrapper cached = cacheManager.getCache(ItemService.ITEMS_CACHE).get(1L);
+        assertNotNull(cached);
+        assertEquals(2L, ((Item) cached.get()).getVersion());
+        Item current = itemService.findById(1L).orElseThrow();
+        assertEquals("new", current.getName());
+        assertEquals(2L, current.getVersion());
+    }
+
+    private ItemWriteBuffer writeBuffer() {
+        ItemService target = AopTestUtils.getTargetObject(itemService);
+        return (ItemWriteBuffer) ReflectionTestUtils.getField(target, "writeBuffer");
+    }
+
+    private static Item item(String name, Long version) {
+        Item item = new Item(1L, name, "desc", "NEW", "email@test.com");
+        item.setVersion(version);
+        return item;
+    }
+}
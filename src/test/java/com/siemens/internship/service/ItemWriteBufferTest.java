@@ -0,0 +1,191 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemWriteBufferTest {
+
+    private final List<Map<Long, Item>> batches = new CopyOnWriteArrayList<>();
+    private ItemWriteBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        buffer.drain(Duration.ZERO);
+    }
+
+    @Test
+    void laterUpdatesWinFieldByFieldAndAnIdIsWrittenOnce() {
+        buffer = newBuffer(100, Duration.ofHours(1), batches::add);
+        Item row = new Item(1L, "Item1", "desc", "NEW", "email@test.com");
+        row.setVersion(3L);
+
+        buffer.offer(1L, patch("first", null), row);
+        buffer.offer(1L, patch(null, "DONE"), new Item());
+        Item view = buffer.offer(1L, patch("second", null), new Item());
+
+        assertEquals("second", view.getName());
+        assertEquals("DONE", view.getStatus());
+        assertEquals("desc", view.getDescription());
+        assertEquals(3L, view.getVersion());
+        assertEquals(1, buffer.size());
+
+        buffer.flush();
+
+        assertEquals(1, batches.size());
+        Item written = batches.get(0).get(1L);
+        assertEquals("second", written.getName());
+        assertEquals("DONE", written.getStatus());
+        assertNull(written.getDescription());
+        assertEquals(0, buffer.size());
+        assertNull(buffer.pending(1L));
+    }
+
+    @Test
+    void reachingMaxBatchFlushesBeforeTheInterval() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        buffer = newBuffer(2, Duration.ofHours(1), batch -> {
+            batches.add(batch);
+            written.countDown();
+        });
+
+        buffer.offer(1L, patch("a", null), new Item());
+        buffer.offer(2L, patch("b", null), new Item());
+
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertEquals(2, batches.get(0).size());
+    }
+
+    @Test
+    void patchesBeingWrittenStayVisibleAndTakeWaitsForThem() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        buffer = newBuffer(100, Duration.ofHours(1), batch -> {
+            writing.countDown();
+            await(release);
+        });
+        buffer.offer(1L, patch("flushing", null), new Item());
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(buffer::flush);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        buffer.offer(1L, patch(null, "DONE"), new Item());
+        Item pending = buffer.pending(1L);
+        assertEquals("flushing", pending.getName());
+        assertEquals("DONE", pending.getStatus());
+
+        AtomicBoolean taken = new AtomicBoolean();
+        CompletableFuture<Item> take = CompletableFuture.supplyAsync(() -> {
+            Item patch = buffer.take(1L);
+            taken.set(true);
+            return patch;
+        });
+        Thread.sleep(100);
+        assertFalse(taken.get());
+
+        release.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+        Item patch = take.get(5, TimeUnit.SECONDS);
+        assertNull(patch.getName());
+        assertEquals("DONE", patch.getStatus());
+        assertNull(buffer.pending(1L));
+    }
+
+    @Test
+    void aFailedBatchIsKeptUnderNewerUpdates() {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        buffer = newBuffer(100, Duration.ofHours(1), batch -> {
+            if (failing.get()) {
+                buffer.offer(1L, patch("newer", null), new Item());
+                throw new IllegalStateException("db down");
+            }
+            batches.add(batch);
+        });
+        buffer.offer(1L, patch("older", "DONE"), new Item());
+
+        assertThrows(IllegalStateException.class, buffer::flush);
+        assertEquals(1, buffer.size());
+
+        failing.set(false);
+        buffer.flush();
+        Item written = batches.get(0).get(1L);
+        assertEquals("newer", written.getName());
+        assertEquals("DONE", written.getStatus());
+    }
+
+    @Test
+    void drainWritesEverythingAndThenRefusesUpdates() {
+        buffer = newBuffer(10, Duration.ofHours(1), batches::add);
+        for (long id = 1; id <= 25; id++) buffer.offer(id, patch("n" + id, null), new Item());
+
+        assertEquals(0, buffer.drain(Duration.ofSeconds(5)));
+
+        List<Long> ids = new ArrayList<>();
+        batches.forEach(batch -> ids.addAll(batch.keySet()));
+        assertEquals(25, ids.size());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 10));
+        assertNull(buffer.offer(1L, patch("late", null), new Item()));
+    }
+
+    @Test
+    void aFullBufferMakesTheCallerFlushBeforeANewIdGoesIn() {
+        buffer = new ItemWriteBuffer(4, 100, 2, Duration.ofHours(1), ItemWriteBufferTest::merge, batches::add);
+        buffer.offer(1L, patch("a", null), new Item());
+        buffer.offer(2L, patch("b", null), new Item());
+        assertNotNull(buffer.offer(2L, patch(null, "DONE"), new Item()));
+        assertTrue(batches.isEmpty());
+
+        assertNotNull(buffer.offer(3L, patch("c", null), new Item()));
+        assertEquals(Set.of(1L, 2L), batches.get(0).keySet());
+        assertEquals(1, buffer.size());
+    }
+
+    @Test
+    void aBufferThatCannotBeFlushedRefusesNewIds() {
+        buffer = new ItemWriteBuffer(4, 100, 1, Duration.ofHours(1), ItemWriteBufferTest::merge, batch -> {
+            throw new IllegalStateException("db down");
+        });
+        buffer.offer(1L, patch("a", null), new Item());
+
+        assertNull(buffer.offer(2L, patch("b", null), new Item()));
+        assertNotNull(buffer.offer(1L, patch(null, "DONE"), new Item()));
+        assertEquals(1, buffer.size());
+    }
+
+    private ItemWriteBuffer newBuffer(int maxBatch, Duration flushInterval, Consumer<Map<Long, Item>> writer) {
+        return new ItemWriteBuffer(4, maxBatch, 1000, flushInterval, ItemWriteBufferTest::merge, writer);
+    }
+
+    private static Item patch(String name, String status) {
+        return new Item(null, name, null, status, null);
+    }
+
+    // Same rule as ItemService.merge: only the attributes present in the patch win.
+    private static void merge(Item item, Item patch) {
+        if (patch.getName() != null)        item.setName(patch.getName());
+        if (patch.getDescription() != null) item.setDescription(patch.getDescription());
+        if (patch.getStatus() != null)      item.setStatus(patch.getStatus());
+        if (patch.getEmail() != null)       item.setEmail(patch.getEmail());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.ProcessingConfig;
+import com.siemens.internship.config.ProcessingProperties;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ProcessingChunk;
+import com.siemens.internship.model.ProcessingRun;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingChunkRepository;
+import com.siemens.internship.repository.ProcessingRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the ledger against the embedded H2 database, since claiming relies on the conditional UPDATEs.
+ */
+@DataJpaTest
+@Import({ProcessingLedger.class, ProcessingConfig.class})
+class ProcessingLedgerTest {
+
+    @Autowired
+    private ProcessingLedger ledger;
+
+    @Autowired
+    private ProcessingProperties processingProperties;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ProcessingRunRepository runRepository;
+
+    @Autowired
+    private ProcessingChunkRepository chunkRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        processingProperties.setChunkSize(2);
+        ids = itemRepository.saveAll(List.of(
+                new Item(null, "Item1", "desc", "NEW", "email1@test.com"),
+                new Item(null, "Item2", "desc", "NEW", "email2@test.com"),
+                new Item(null, "Item3", "desc", "NEW", "email3@test.com")
+        )).stream().map(Item::getId).toList();
+        itemRepository.flush();
+    }
+
+    @Test
+    void plan_cutsRunIntoIdRanges() {
+        ProcessingRun run = ledger.plan(UUID.randomUUID(), ProcessingMode.FULL, null, Instant.now());
+
+        assertEquals(2, run.getChunks());
+        ProcessingChunk first = ledger.claim(run.getId()).orElseThrow();
+        assertEquals(ids.get(0), first.getFirstId());
+        assertEquals(ids.get(1), first.getLastId());
+        assertEquals(ids.subList(0, 2), ledger.idsOf(run, first));
+    }
+
+    @Test
+    void plan_incrementalOnlyCoversChangedItems() {
+        Instant since = Instant.now().minusSeconds(60);
+        itemRepository.updateProcessed(itemRepository.findAllById(ids.subList(0, 2)), Instant.now().plusSeconds(60));
+
+        ProcessingRun run = ledger.plan(UUID.randomUUID(), ProcessingMode.INCREMENTAL, since, Instant.now());
+
+        assertEquals(1, run.getChunks());
+        assertEquals(List.of(ids.get(2)), ledger.idsOf(run, ledger.claim(run.getId()).orElseThrow()));
+    }
+
+    @Test
+    void claim_handsEveryChunkOutOnce() {
+        ProcessingRun run = ledger.plan(UUID.randomUUID(), ProcessingMode.FULL, null, Instant.now());
+
+        ProcessingChunk first = ledger.claim(run.getId()).orElseThrow();
+        ProcessingChunk second = ledger.claim(run.getId()).orElseThrow();
+
+        assertNotEquals(first.getId(), second.getId());
+        assertTrue(ledger.claim(run.getId()).isEmpty());
+        assertTrue(ledger.resumable().isEmpty());
+    }
+
+    @Test
+    void claim_takesOverExpiredLease_andIgnoresTheOldOwner() {
+        processingProperties.setLease(Duration.ofSeconds(-1));
+        ProcessingRun run = ledger.plan(UUID.randomUUID(), ProcessingMode.FULL, null, Instant.now());
+        ProcessingChunk lost = ledger.claim(run.getId()).orElseThrow();
+
+        ProcessingLedger other = otherInstance();
+
+        assertEquals(List.of(run.getId()), other.resumable().stream().map(ProcessingRun::getId).toList());
+        assertEquals(lost.getId(), other.claim(run.getId()).orElseThrow().getId());
+        ledger.completed(lost.getId(), 2);
+        other.completed(lost.getId(), 1);
+
+        entityManager.clear();
+        ProcessingChunk stored = chunkRepository.findById(lost.getId()).orElseThrow();
+        assertEquals(ProcessingChunk.State.DONE, stored.getState());
+        assertEquals(other.getOwner(), stored.getOwner());
+        assertEquals(1, stored.getProcessed());
+        assertEquals(2, stored.getAttempts());
+    }
+
+    @Test
+    void renewLeases_keepsAChunkRunningPastItsLeaseFromBeingReclaimed() {
+        processingProperties.setLease(Duration.ofSeconds(-1));
+        ProcessingRun run = ledger.plan(UUID.randomUUID(), ProcessingMode.FULL, null, Instant.now());
+        ProcessingChunk slow = ledger.claim(run.getId()).orElseThrow();
+        ProcessingLedger other = otherInstance();
+        assertEquals(List.of(slow.getId()), chunkRepository.findClaimable(run.getId(), Instant.now(), PageRequest.ofSize(1)));
+
+        // Still being worked on when the renewal comes around: the lease is extended from now.
+        processingProperties.setLease(Duration.ofMinutes(5));
+        ledger.renewLeases();
+
+        assertNotEquals(slow.getId(), other.claim(run.getId()).orElseThrow().getId());
+        assertTrue(other.claim(run.getId()).isEmpty());
+        ledger.completed(slow.getId(), 2);
+
+        entityManager.clear();
+        ProcessingChunk stored = chunkRepository.findById(slow.getId()).orElseThrow();
+        assertEquals(ProcessingChunk.State.DONE, stored.getState());
+        assertEquals(ledger.getOwner(), stored.getOwner());
+        assertEquals(1, stored.getAttempts());
+    }
+
+    @Test
+    void renewLeases_stopsOnceTheChunkIsReleased() {
+        ProcessingRun run = ledger.plan(UUID.randomUUID(), ProcessingMode.FULL, null, Instant.now());
+        ProcessingChunk chunk = ledger.claim(run.getId()).orElseThrow();
+        ledger.failed(chunk.getId(), new IllegalStateException("boom"));
+
+        ledger.renewLeases();
+
+        entityManager.clear();
+        ProcessingChunk stored = chunkRepository.findById(chunk.getId()).orElseThrow();
+        assertEquals(ProcessingChunk.State.FAILED, stored.getState());
+        assertNull(stored.getLeaseUntil());
+    }
+
+    // Another instance: same database, different owner.
+    private ProcessingLedger otherInstance() {
+        ProcessingLedger other = new ProcessingLedger();
+        ReflectionTestUtils.setField(other, "itemRepository", itemRepository);
+        ReflectionTestUtils.setField(other, "runRepository", runRepository);
+        ReflectionTestUtils.setField(other, "chunkRepository", chunkRepository);
+        ReflectionTestUtils.setField(other, "processingProperties", processingProperties);
+        return other;
+    }
+
+    @Test
+    void finish_endsRunOnce() {
+        ProcessingRun run = ledger.plan(UUID.randomUUID(), ProcessingMode.FULL, null, Instant.now());
+
+        assertTrue(ledger.finish(run.getId(), ProcessingRun.State.CANCELLED));
+        assertFalse(ledger.finish(run.getId(), ProcessingRun.State.COMPLETED));
+        assertTrue(ledger.claim(run.getId()).isEmpty());
+    }
+}
@@ -0,0 +1,59 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs against the real ledger and the scheduled resumer, with a resume interval far shorter than the run, on a
+ * database of its own so no other test context's resumer can join the run either.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:resume",
+        "items.processing.chunk-size=2",
+        "items.processing.resume-interval=PT0.1S"
+})
+class ProcessingResumeTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void aStreamedRunSlowerThanTheResumeIntervalReportsEveryItem() throws InterruptedException {
+        itemRepository.saveAll(IntStream.rangeClosed(1, 20)
+                .mapToObj(i -> new Item(null, "Item" + i, "desc", "NEW", "email" + i + "@test.com"))
+                .toList());
+        Set<Long> streamed = ConcurrentHashMap.newKeySet();
+        Lock writeLock = new ReentrantLock();
+
+        // What /process/stream does with a slow reader: one chunk at a time, each taking several resume intervals.
+        itemService.processItems(ProcessingMode.FULL, chunk -> {
+            writeLock.lock();
+            try {
+                Thread.sleep(300);
+                chunk.forEach(item -> streamed.add(item.getId()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                writeLock.unlock();
+            }
+        });
+
+        List<Long> all = itemRepository.findAll().stream().map(Item::getId).toList();
+        assertEquals(Set.copyOf(all), streamed);
+    }
+}
@@ -2,17 +2,34 @@ package com.siemens.internship.service;
 
 
 import com.siemens.internship.controller.ItemController;
+import com.siemens.internship.exception.ConflictException;
 import com.siemens.internship.exception.NotFoundException;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemEvent;
+import com.siemens.internship.repository.ItemFilter;
 import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.resilience.SingleFlight;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,6 +44,15 @@ class UserServiceTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private ItemOutbox outbox;
+
+    @Spy
+    private TransactionOperations transactions = TransactionOperations.withoutTransaction();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -47,6 +73,58 @@ class UserServiceTest {
         verify(itemRepository).findAll();
     }
 
+    @Test
+    void testFindPage_hasNextCursor() {
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), any(Limit.class))).thenReturn(List.of(
+                new Item(1L, "Item1", "desc", "NEW", "email@test.com"),
+                new Item(2L, "Item2", "desc", "NEW", "email2@test.com"),
+                new Item(3L, "Item3", "desc", "NEW", "email3@test.com")));
+
+        ItemPage<Item> page = itemService.findPage(null, 2);
+
+        assertEquals(2, page.items().size());
+        assertEquals(2L, page.nextCursor());
+        verify(itemRepository).findByIdGreaterThanOrderByIdAsc(Long.MIN_VALUE, Limit.of(3));
+    }
+
+    @Test
+    void testFindPage_lastPage() {
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Limit.class))).thenReturn(List.of(
+                new Item(3L, "Item3", "desc", "NEW", "email3@test.com")));
+
+        ItemPage<Item> page = itemService.findPage(2L, 2);
+
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void testFindPage_projectionAlwaysSelectsId() {
+        when(itemRepository.findProjectedAfter(ItemFilter.NONE, Long.MIN_VALUE, 11, List.of("id", "status")))
+                .thenReturn(List.of(Map.of("id", 1L, "status", "NEW")));
+
+        ItemPage<Map<String, Object>> page = itemService.findPage(null, 10, List.of("status"));
+
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void testFindPage_filterUsesStatusIndexQuery() {
+        when(itemRepository.findByStatusAndIdGreaterThanOrderByStatusAscIdAsc(eq("NEW"), eq(Long.MIN_VALUE), any(Limit.class)))
+                .thenReturn(List.of(new Item(1L, "Item1", "desc", "NEW", "email@test.com")));
+
+        ItemPage<Item> page = itemService.findPage(new ItemFilter("NEW", " "), null, 2);
+
+        assertEquals(1, page.items().size());
+        verify(itemRepository).findByStatusAndIdGreaterThanOrderByStatusAscIdAsc("NEW", Long.MIN_VALUE, Limit.of(3));
+    }
+
+    @Test
+    void testFindPage_unknownFieldIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> itemService.findPage(null, 10, List.of("password")));
+    }
+
     @Test
     void testFindById_found() throws NotFoundException {
         Item item = new Item(2L, "Item2", "desc", "NEW", "email2@test.com");
@@ -64,6 +142,56 @@ class UserServiceTest {
         assertThrows(NotFoundException.class, () -> itemService.findById(1L));
     }
 
+    @Test
+    void testFindById_concurrentMissesShareOneRead() throws Exception {
+        int callers = 4;
+        Item item = new Item(1L, "Item1", "desc", "NEW", "email@test.com");
+        // Counted down by every caller that got the read in flight instead of starting one; the caller that started it
+        // is still inside the read then.
+        CountDownLatch joined = new CountDownLatch(callers - 1);
+        ReflectionTestUtils.setField(itemService, "lookups", new SingleFlight<Long, Optional<Item>>() {
+            @Override
+            public CompletableFuture<Optional<Item>> execute(Long key, Supplier<CompletableFuture<Optional<Item>>> call) {
+                CompletableFuture<Optional<Item>> flight = super.execute(key, call);
+                if (!flight.isDone()) joined.countDown();
+                return flight;
+            }
+        });
+        CountDownLatch reading = new CountDownLatch(1);
+        when(itemRepository.findById(1L)).thenAnswer(invocation -> {
+            reading.countDown();
+            // Released only once every other caller is waiting on this read.
+            assertTrue(joined.await(5, TimeUnit.SECONDS));
+            return Optional.of(item);
+        });
+
+        // A thread per caller: on a small common pool the others would only start once the first one is done.
+        ExecutorService threads = Executors.newFixedThreadPool(callers);
+        try {
+            CompletableFuture<Optional<Item>> first = CompletableFuture.supplyAsync(() -> find(1L), threads);
+            assertTrue(reading.await(5, TimeUnit.SECONDS));
+            List<CompletableFuture<Optional<Item>>> others = IntStream.range(1, callers)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> find(1L), threads))
+                    .toList();
+
+            assertSame(item, first.get(5, TimeUnit.SECONDS).orElseThrow());
+            for (CompletableFuture<Optional<Item>> other : others) {
+                assertSame(item, other.get(5, TimeUnit.SECONDS).orElseThrow());
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+        verify(itemRepository, times(1)).findById(1L);
+    }
+
+    private Optional<Item> find(Long id) {
+        try {
+            return itemService.findById(id);
+        } catch (NotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     @Test
     void testSave() {
         Item item = new Item();
@@ -73,10 +201,11 @@ class UserServiceTest {
 
         assertNotNull(result);
         verify(itemRepository).save(item);
+        verify(outbox).append(ItemEvent.Type.CREATED, List.of(item));
     }
 
     @Test
-    void testUpdateItem_found() throws NotFoundException {
+    void testUpdateItem_found() throws NotFoundException, ConflictException {
         Item existing = new Item(1L, "old", "desc", "NEW", "old@mail.com");
         Item update = new Item(null, "new", null, "PROCESSED", null);
 
@@ -91,7 +220,7 @@ class UserServiceTest {
     }
 
     @Test
-    void testUpdateItem_notFound() throws NotFoundException {
+    void testUpdateItem_notFound() throws NotFoundException, ConflictException {
         Item update = new Item(2L, "Item2", "desc", "NEW", "email2@test.com");
         when(itemRepository.findById(1L)).thenReturn(Optional.empty());
 
@@ -99,6 +228,85 @@ class UserServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void testUpdateItem_retriesOnConcurrentWrite() throws NotFoundException, ConflictException {
+        when(itemRepository.findById(1L)).thenAnswer(i -> Optional.of(new Item(1L, "old", "desc", "NEW", "old@mail.com")));
+        when(itemRepository.save(any(Item.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 1L))
+                .thenAnswer(i -> i.getArgument(0));
+
+        Optional<Item> result = itemService.updateItem(1L, new Item(null, "new", null, null, null));
+
+        assertEquals("new", result.get().getName());
+        verify(itemRepository, times(2)).findById(1L);
+        // Only the attempt that got written leaves an event.
+        verify(outbox, times(1)).append(eq(ItemEvent.Type.UPDATED), anyList());
+    }
+
+    @Test
+    void testUpdateItem_staleVersionIsConflict() {
+        Item existing = new Item(1L, "old", "desc", "NEW", "old@mail.com");
+        existing.setVersion(3L);
+        Item update = new Item(null, "new", null, null, null);
+        update.setVersion(2L);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+        assertThrows(ConflictException.class, () -> itemService.updateItem(1L, update));
+        verify(itemRepository, never()).save(any(Item.class));
+    }
+
+    @Test
+    void testUpdateItem_givesUpAfterMaxAttempts() {
+        when(itemRepository.findById(1L)).thenAnswer(i -> Optional.of(new Item(1L, "old", "desc", "NEW", "old@mail.com")));
+        when(itemRepository.save(any(Item.class))).thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 1L));
+
+        assertThrows(ConflictException.class, () -> itemService.updateItem(1L, new Item(null, "new", null, null, null)));
+        verify(itemRepository, times(ItemService.MAX_UPDATE_ATTEMPTS)).save(any(Item.class));
+    }
+
+    @Test
+    void testSaveAll_insertsAsNewRows() {
+        List<Item> items = List.of(new Item(7L, "Item1", "desc", "NEW", "email@test.com"));
+        when(itemRepository.saveAll(items)).thenReturn(items);
+
+        itemService.saveAll(items);
+
+        assertNull(items.get(0).getId());
+        verify(itemRepository).saveAll(items);
+    }
+
+    @Test
+    void testUpdateAll_mergesFields() throws NotFoundException, ConflictException {
+        Item existing = new Item(1L, "old", "desc", "NEW", "old@mail.com");
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(existing));
+        when(itemRepository.saveAll(anyCollection())).thenAnswer(i -> List.copyOf(i.getArgument(0)));
+
+        List<Item> result = itemService.updateAll(List.of(new Item(1L, null, null, "PROCESSED", null)));
+
+        assertEquals("old", result.get(0).getName());
+        assertEquals("PROCESSED", result.get(0).getStatus());
+    }
+
+    @Test
+    void testUpdateAll_missingIdUpdatesNothing() {
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(new Item(1L, "old", "desc", "NEW", "old@mail.com")));
+
+        assertThrows(NotFoundException.class, () -> itemService.updateAll(List.of(
+                new Item(1L, "new", null, null, null),
+                new Item(2L, "new", null, null, null))));
+        verify(itemRepository, never()).saveAll(anyCollection());
+    }
+
+    @Test
+    void testDeleteAllById() {
+        when(itemRepository.findExistingIds(List.of(1L, 2L))).thenReturn(List.of(2L));
+
+        itemService.deleteAllById(List.of(1L, 2L));
+
+        verify(itemRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outbox).deleted(List.of(2L));
+    }
+
     @Test
     void testDeleteById_success() throws NotFoundException {
         when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item()));
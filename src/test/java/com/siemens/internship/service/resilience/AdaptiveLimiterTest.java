@@ -0,0 +1,80 @@
+package com.siemens.internship.service.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimiterTest {
+
+    private final AdaptiveLimiter limiter = new AdaptiveLimiter(4, 1, 32, 1.5);
+
+    @Test
+    void growsWhileLatencyStaysFlat() throws InterruptedException {
+        for (int round = 0; round < 20; round++) saturate(1_000);
+
+        assertTrue(limiter.limit() > 8, "limit " + limiter.limit());
+        assertTrue(limiter.limit() <= 32);
+    }
+
+    @Test
+    void shrinksOnceLatencyClimbs() throws InterruptedException {
+        for (int round = 0; round < 10; round++) saturate(1_000);
+        int before = limiter.limit();
+
+        for (int round = 0; round < 5; round++) saturate(5_000);
+
+        assertTrue(limiter.limit() < before, before + " -> " + limiter.limit());
+    }
+
+    @Test
+    void doesNotGrowWhenNotInUse() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            limiter.acquire();
+            limiter.release(1_000, 1, false);
+        }
+
+        assertEquals(4, limiter.limit());
+    }
+
+    @Test
+    void overloadCutsTheLimit() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(20, 1, 32, 1.5);
+        limiter.acquire();
+
+        limiter.release(1_000, 0, true);
+
+        assertEquals(18, limiter.limit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void blocksAtTheLimit() throws InterruptedException {
+        AdaptiveLimiter limiter = AdaptiveLimiter.fixed(1);
+        limiter.acquire();
+        Thread waiter = new Thread(() -> {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertTrue(waiter.isAlive());
+        limiter.cancel();
+        waiter.join(1_000);
+
+        assertFalse(waiter.isAlive());
+        assertEquals(1, limiter.inFlight());
+    }
+
+    // Fills every permit, then finishes all of them with the given per-item latency.
+    private void saturate(long latencyNanos) throws InterruptedException {
+        int permits = limiter.limit();
+        for (int i = 0; i < permits; i++) limiter.acquire();
+        for (int i = 0; i < permits; i++) limiter.release(latencyNanos * 10, 10, false);
+    }
+}
@@ -0,0 +1,72 @@
+package com.siemens.internship.service.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> flight = new SingleFlight<>();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void callersOfAKeyInFlightShareItsOutcome() throws Exception {
+        CompletableFuture<Integer> call = new CompletableFuture<>();
+
+        CompletableFuture<Integer> first = flight.execute("a", () -> started(call));
+        CompletableFuture<Integer> second = flight.execute("a", () -> started(new CompletableFuture<>()));
+        assertEquals(1, calls.get());
+        assertFalse(second.isDone());
+
+        call.complete(42);
+        assertEquals(42, first.get());
+        assertEquals(42, second.get());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void otherKeysAndLaterCallersStartCallsOfTheirOwn() throws Exception {
+        CompletableFuture<Integer> call = new CompletableFuture<>();
+        flight.execute("a", () -> started(call));
+        assertEquals(7, flight.execute("b", () -> started(CompletableFuture.completedFuture(7))).get());
+
+        call.complete(1);
+        assertEquals(2, flight.execute("a", () -> started(CompletableFuture.completedFuture(2))).get());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void failureIsSharedAndReleasesTheKey() {
+        CompletableFuture<Integer> call = new CompletableFuture<>();
+        CompletableFuture<Integer> first = flight.execute("a", () -> started(call));
+        CompletableFuture<Integer> second = flight.execute("a", () -> started(new CompletableFuture<>()));
+
+        call.completeExceptionally(new IllegalStateException("boom"));
+        assertInstanceOf(IllegalStateException.class, assertThrows(ExecutionException.class, first::get).getCause());
+        assertInstanceOf(IllegalStateException.class, assertThrows(ExecutionException.class, second::get).getCause());
+
+        CompletableFuture<Integer> thrown = flight.execute("a", () -> { throw new IllegalArgumentException("sync"); });
+        assertTrue(thrown.isCompletedExceptionally());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void cancellingOneCallerLeavesTheOthersWaiting() throws Exception {
+        CompletableFuture<Integer> call = new CompletableFuture<>();
+        CompletableFuture<Integer> first = flight.execute("a", () -> started(call));
+        CompletableFuture<Integer> second = flight.execute("a", () -> started(new CompletableFuture<>()));
+
+        first.cancel(true);
+        call.complete(5);
+        assertEquals(5, second.get());
+    }
+
+    private CompletableFuture<Integer> started(CompletableFuture<Integer> call) {
+        calls.incrementAndGet();
+        return call;
+    }
+}
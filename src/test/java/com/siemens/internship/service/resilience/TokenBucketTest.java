@@ -0,0 +1,52 @@
+package com.siemens.internship.service.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final TokenBucket bucket = new TokenBucket(2, 3, clock::get);
+
+    @Test
+    void admitsBurstThenRefusesWithRetryAfter() {
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+
+        assertFalse(bucket.tryAcquire());
+        assertEquals(Duration.ofMillis(500), bucket.retryAfter());
+    }
+
+    @Test
+    void refillsAtRateUpToBurst() {
+        drain();
+        clock.addAndGet(Duration.ofMillis(500).toNanos());
+
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+
+        // A long idle period doesn't bank more than a burst.
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        drain();
+        assertEquals(Duration.ofMillis(500), bucket.retryAfter());
+    }
+
+    @Test
+    void retryAfterCountsPartialTokens() {
+        drain();
+        clock.addAndGet(Duration.ofMillis(200).toNanos());
+
+        assertEquals(Duration.ofMillis(300), bucket.retryAfter());
+    }
+
+    private void drain() {
+        int taken = 0;
+        while (bucket.tryAcquire()) taken++;
+        assertTrue(taken <= 3);
+    }
+}
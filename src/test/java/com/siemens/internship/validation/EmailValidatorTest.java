@@ -0,0 +1,106 @@
+package com.siemens.internship.validation;
+
+import com.siemens.internship.model.Item;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailValidatorTest {
+
+    // The @Pattern the validator replaced; the reference for every equivalence check below.
+    private static final Pattern REGEX = Pattern.compile("[a-zA-Z][.0-9a-zA-Z]+\\@([.a-zA-Z]+)+(\\.[a-z]+)+");
+
+    // One character of every class the regex tells apart, plus one it never accepts.
+    private static final char[] ALPHABET = {'a', 'Z', '0', '.', '@', '-'};
+
+    @Test
+    void acceptsTheDocumentedAddresses() {
+        assertTrue(EmailValidator.isValid("codoreanluca@gmail.com"));
+        assertTrue(EmailValidator.isValid("codorean.luca@gmail.com"));
+        assertTrue(EmailValidator.isValid("codorean.do.luca@student.utcluj.ro"));
+    }
+
+    @Test
+    void rejectsWhatTheRegexRejects() {
+        assertFalse(EmailValidator.isValid(""));
+        assertFalse(EmailValidator.isValid("bad email"));
+        assertFalse(EmailValidator.isValid("a@gmail.com"));          // local part too short
+        assertFalse(EmailValidator.isValid("1abc@gmail.com"));       // local part starts with a digit
+        assertFalse(EmailValidator.isValid("abc@gmail"));            // no top-level domain
+        assertFalse(EmailValidator.isValid("abc@gmail.COM"));        // upper-case top-level domain
+        assertFalse(EmailValidator.isValid("abc@gmail.com."));       // trailing dot
+        assertFalse(EmailValidator.isValid("abc@.com"));             // nothing before the last dot
+        assertFalse(EmailValidator.isValid("abc@gm4il.com"));        // digit in the domain
+        assertFalse(EmailValidator.isValid("abc@def@gmail.com"));
+    }
+
+    @Test
+    void matchesTheRegexOnEveryShortString() {
+        char[] chars = new char[7];
+        for (int length = 0; length <= chars.length; length++) {
+            int combinations = (int) Math.pow(ALPHABET.length, length);
+            for (int n = 0; n < combinations; n++) {
+                for (int i = 0, rest = n; i < length; i++, rest /= ALPHABET.length) {
+                    chars[i] = ALPHABET[rest % ALPHABET.length];
+                }
+                assertSameAsRegex(new String(chars, 0, length));
+            }
+        }
+    }
+
+    @Test
+    void matchesTheRegexOnRandomAddresses() {
+        String alphabet = "abzAZ09.@-_ ";
+        Random random = new Random(42);
+        for (int n = 0; n < 200_000; n++) {
+            StringBuilder email = new StringBuilder("ab");
+            int length = random.nextInt(20);
+            for (int i = 0; i < length; i++) {
+                email.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            // most random strings have no @ at all; give half of them one, followed by a plausible domain
+            if (random.nextBoolean()) email.append('@').append(random.nextBoolean() ? "mail.Example" : "x").append(".com");
+            assertSameAsRegex(email.toString());
+        }
+    }
+
+    @Test
+    void pathologicalInputsTakeLinearTime() {
+        // Each of these makes the regex retry the splits of the domain; at this length it takes seconds to minutes.
+        String[] inputs = {
+                "aa@" + "a".repeat(100_000) + "!",
+                "aa@" + "a".repeat(100_000) + ".",
+                "aa@" + "a.".repeat(50_000) + "A",
+                "aa@" + "a".repeat(100_000) + ".c0m",
+        };
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            for (String input : inputs) {
+                assertFalse(EmailValidator.isValid(input));
+            }
+        });
+        assertTrue(EmailValidator.isValid("aa@" + "a".repeat(100_000) + ".com"));
+    }
+
+    @Test
+    void itemEmailIsValidatedAndNullIsAllowed() {
+        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+            Validator validator = factory.getValidator();
+
+            assertTrue(validator.validate(new Item(null, "Item", "desc", "NEW", "codorean.luca@gmail.com")).isEmpty());
+            assertTrue(validator.validate(new Item(null, "Item", "desc", "NEW", null)).isEmpty());
+            assertEquals("The e-mail is invalid",
+                    validator.validate(new Item(null, "Item", "desc", "NEW", "bad email")).iterator().next().getMessage());
+        }
+    }
+
+    private static void assertSameAsRegex(String email) {
+        assertEquals(REGEX.matcher(email).matches(), EmailValidator.isValid(email), email);
+    }
+}